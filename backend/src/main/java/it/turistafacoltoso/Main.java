@@ -1,5 +1,9 @@
 package it.turistafacoltoso;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -12,14 +16,37 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.javalin.Javalin;
 import io.javalin.json.JavalinJackson;
 import it.turistafacoltoso.controller.AbitazioneController;
+import it.turistafacoltoso.controller.ControllerUtil;
+import it.turistafacoltoso.controller.DashboardController;
+import it.turistafacoltoso.controller.ExportController;
 import it.turistafacoltoso.controller.FeedbackController;
 import it.turistafacoltoso.controller.HostController;
+import it.turistafacoltoso.controller.ImportController;
+import it.turistafacoltoso.controller.MetricsController;
 import it.turistafacoltoso.controller.PrenotazioneController;
+import it.turistafacoltoso.controller.ReportController;
 import it.turistafacoltoso.controller.UtenteController;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.ConflictException;
 import it.turistafacoltoso.exception.DataAccessException;
 import it.turistafacoltoso.exception.NotFoundException;
 import it.turistafacoltoso.exception.ValidationException;
+import it.turistafacoltoso.model.EsitoImport;
+import it.turistafacoltoso.service.AggregatiPrenotazioni;
+import it.turistafacoltoso.service.ClassificheTop;
+import it.turistafacoltoso.service.ContatoriDashboard;
+import it.turistafacoltoso.service.EventiDominio;
+import it.turistafacoltoso.service.FiltroCodiciHost;
+import it.turistafacoltoso.service.FinestraUltimoMese;
+import it.turistafacoltoso.service.ImportService;
+import it.turistafacoltoso.service.IndiceDisponibilita;
+import it.turistafacoltoso.service.IndiceOccupazione;
+import it.turistafacoltoso.service.ReportCache;
+import it.turistafacoltoso.service.VersioniTabelle;
+import it.turistafacoltoso.util.AppConfig;
 import it.turistafacoltoso.util.DatabaseConnection;
+import it.turistafacoltoso.util.MigrationRunner;
+import it.turistafacoltoso.util.PinningMonitor;
 
 public class Main {
 
@@ -28,13 +55,45 @@ public class Main {
     public static void main(String[] args) {
 
         DatabaseConnection.init("config.properties");
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::shutdown));
         log.info("Connessione al database inizializzata");
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (AppConfig.getBoolean("db.migrations.enabled", true)) {
+            MigrationRunner.migrate();
+            log.info("Migrazioni database applicate");
+        }
+
+        if (args.length > 0 && "import".equals(args[0])) {
+            importaDaFile(args);
+            return;
+        }
+
+        VersioniTabelle.avvia(AppConfig.getLong("http.cache.versioni.pollMs", 1000));
+        IndiceDisponibilita.getInstance().carica();
+        EventiDominio.registra(IndiceDisponibilita.getInstance());
+        IndiceOccupazione.getInstance().carica();
+        EventiDominio.registra(IndiceOccupazione.getInstance());
+        AggregatiPrenotazioni.getInstance().carica();
+        EventiDominio.registra(AggregatiPrenotazioni.getInstance());
+        FinestraUltimoMese.getInstance().carica();
+        EventiDominio.registra(FinestraUltimoMese.getInstance());
+        ClassificheTop.getInstance().carica();
+        EventiDominio.registra(ClassificheTop.getInstance());
+        FiltroCodiciHost.getInstance().carica();
+        EventiDominio.registra(FiltroCodiciHost.getInstance());
+        ContatoriDashboard.getInstance().carica();
+        EventiDominio.registra(ContatoriDashboard.getInstance());
+        EventiDominio.registra(ReportCache.getInstance());
+
+        ObjectMapper objectMapper = creaObjectMapper();
+
+        boolean virtualThreads = AppConfig.getBoolean("server.virtualThreads", false);
+        if (virtualThreads) {
+            PinningMonitor.start(Duration.ofMillis(AppConfig.getLong("server.virtualThreads.pinnedThresholdMs", 20)));
+        }
 
         Javalin app = Javalin.create(config -> {
+            config.useVirtualThreads = virtualThreads;
             config.bundledPlugins.enableCors(cors -> {
                 cors.addRule(rule -> {
                     rule.anyHost();
@@ -51,6 +110,10 @@ public class Main {
             log.warn("Validazione fallita: {}", e.getMessage());
             ctx.status(400).json(Map.of("error", e.getMessage()));
         });
+        app.exception(ConflictException.class, (e, ctx) -> {
+            log.warn("Conflitto: {}", e.getMessage());
+            ctx.status(409).json(Map.of("error", e.getMessage()));
+        });
         app.exception(DataAccessException.class, (e, ctx) -> {
             log.error("Errore accesso dati: {}", e.getMessage(), e);
             ctx.status(500).json(Map.of("error", e.getMessage()));
@@ -60,13 +123,57 @@ public class Main {
             ctx.status(500).json(Map.of("error", e.getMessage()));
         });
 
+        if (!DatabaseConnection.getReplicas().isEmpty()) {
+            app.before(ControllerUtil::apriScritture);
+            app.after(ControllerUtil::chiudiScritture);
+        }
+
+        new ExportController().registerRoutes(app);
         new UtenteController().registerRoutes(app);
         new HostController().registerRoutes(app);
         new AbitazioneController().registerRoutes(app);
         new PrenotazioneController().registerRoutes(app);
         new FeedbackController().registerRoutes(app);
+        new ReportController().registerRoutes(app);
+        new DashboardController().registerRoutes(app);
+        new MetricsController().registerRoutes(app);
+        if (AppConfig.getBoolean("admin.import.enabled", false)) {
+            new ImportController().registerRoutes(app);
+        }
+
+        int porta = AppConfig.getInt("server.port", 7000);
+        app.start(porta);
+        log.info("Server avviato su http://localhost:{} ({})", porta, virtualThreads ? "virtual thread" : "thread pool Jetty");
+    }
+
+    public static ObjectMapper creaObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return objectMapper;
+    }
+
+    private static void importaDaFile(String[] args) {
+        if (args.length < 3) {
+            log.error("Uso: import <utenti|host|abitazioni|prenotazioni|feedback> <file> [csv|ndjson]");
+            System.exit(2);
+        }
+        Tabella tabella = Tabella.fromRisorsa(args[1]);
+        if (tabella == null) {
+            log.error("Entità non valida: {}", args[1]);
+            System.exit(2);
+        }
+        String file = args[2];
+        String formato = args.length > 3 ? args[3]
+                : file.endsWith(".ndjson") || file.endsWith(".jsonl") ? ImportService.FORMATO_NDJSON : ImportService.FORMATO_CSV;
 
-        app.start(7000);
-        log.info("Server avviato su http://localhost:7000");
+        try (InputStream in = new FileInputStream(file)) {
+            EsitoImport esito = new ImportService().importa(tabella, in, formato);
+            log.info("Import {} completato: {} righe in {} ms ({} righe/s)",
+                    tabella.getNome(), esito.getRighe(), esito.getDurataMs(), esito.getRigheAlSecondo());
+        } catch (IOException | RuntimeException e) {
+            log.error("Import {} fallito: {}", tabella.getNome(), e.getMessage(), e);
+            System.exit(1);
+        }
     }
 }
@@ -1,11 +1,15 @@
 package it.turistafacoltoso.controller;
 
 import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.service.AbitazioneService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+
 public class AbitazioneController {
 
     private static final Logger log = LoggerFactory.getLogger(AbitazioneController.class);
@@ -14,13 +18,34 @@ public class AbitazioneController {
     public void registerRoutes(Javalin app) {
 
         app.get("/api/abitazioni", ctx -> {
+            if (ControllerUtil.nonModificato(ctx, Tabella.ABITAZIONE)) {
+                return;
+            }
+            RichiestaPagina pagina = ControllerUtil.richiestaPagina(ctx);
+            if (pagina != null) {
+                ctx.json(abitazioneService.findPagina(pagina));
+                return;
+            }
             log.info("Richiesta lista abitazioni");
-            ctx.json(abitazioneService.findAll());
+            ControllerUtil.jsonInCache(ctx, abitazioneService::findAll);
+        });
+
+        app.get("/api/abitazioni/disponibili", ctx -> {
+            if (ControllerUtil.nonModificato(ctx, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE)) {
+                return;
+            }
+            LocalDate dal = ControllerUtil.queryDate(ctx, "dal");
+            LocalDate al = ControllerUtil.queryDate(ctx, "al");
+            Integer postiLetto = ControllerUtil.queryInt(ctx, "postiLetto");
+            ctx.json(abitazioneService.findDisponibili(dal, al, postiLetto));
         });
 
-        app.get("/api/abitazioni/{id}", ctx -> ControllerUtil.getById(ctx, "id", abitazioneService::findById, "Abitazione non trovata"));
+        app.get("/api/abitazioni/{id}", ctx -> ControllerUtil.getById(ctx, "id", abitazioneService::findById, "Abitazione non trovata", Tabella.ABITAZIONE));
 
         app.get("/api/abitazioni/host/{codiceHost}", ctx -> {
+            if (ControllerUtil.nonModificato(ctx, Tabella.ABITAZIONE, Tabella.HOST)) {
+                return;
+            }
             String codice = ctx.pathParam("codiceHost");
             log.info("Richiesta abitazioni per host: {}", codice);
             ctx.json(abitazioneService.findByCodiceHost(codice));
@@ -47,19 +72,35 @@ public class AbitazioneController {
         });
 
         app.get("/api/abitazioni/report/piu-gettonata", ctx -> {
+            if (ControllerUtil.reportNonModificato(ctx, true, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE)) {
+                return;
+            }
             log.info("Richiesta abitazione più gettonata ultimo mese");
-            Abitazione abitazione = abitazioneService.findPiuGettonataUltimoMese();
-            if (abitazione != null) {
-                ctx.json(abitazione);
-            } else {
-                ctx.json(java.util.Map.of("message", "Nessuna prenotazione nell'ultimo mese"));
+            ControllerUtil.jsonInCache(ctx, () -> {
+                Abitazione abitazione = abitazioneService.findPiuGettonataUltimoMese();
+                return abitazione != null ? abitazione : java.util.Map.of("message", "Nessuna prenotazione nell'ultimo mese");
+            });
+        });
+
+        app.get("/api/abitazioni/report/occupazione", ctx -> {
+            if (ControllerUtil.reportNonModificato(ctx, false, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE)) {
+                return;
             }
+            LocalDate from = ControllerUtil.queryDate(ctx, "from");
+            LocalDate to = ControllerUtil.queryDate(ctx, "to");
+            log.info("Richiesta report occupazione dal {} al {}", from, to);
+            ControllerUtil.jsonInCache(ctx, () -> abitazioneService.getOccupazione(from, to));
         });
 
         app.get("/api/abitazioni/report/media-posti-letto", ctx -> {
+            if (ControllerUtil.reportNonModificato(ctx, false, Tabella.ABITAZIONE)) {
+                return;
+            }
             log.info("Richiesta media posti letto");
-            Double media = abitazioneService.getMediaPostiLetto();
-            ctx.json(java.util.Map.of("mediaPostiLetto", media != null ? media : 0));
+            ControllerUtil.jsonInCache(ctx, () -> {
+                Double media = abitazioneService.getMediaPostiLetto();
+                return java.util.Map.of("mediaPostiLetto", media != null ? media : 0);
+            });
         });
     }
 }
@@ -1,22 +1,223 @@
 package it.turistafacoltoso.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
+import io.javalin.http.Cookie;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.exception.NotFoundException;
+import it.turistafacoltoso.exception.ValidationException;
+import it.turistafacoltoso.model.RichiestaPagina;
+import it.turistafacoltoso.service.VersioniTabelle;
+import it.turistafacoltoso.util.AppConfig;
+import it.turistafacoltoso.util.DatabaseConnection;
+import it.turistafacoltoso.util.ResponseBodyCache;
 
 public final class ControllerUtil {
 
+    private static final String CACHE_REPORT = "private, max-age=" + AppConfig.getLong("http.cache.report.maxAgeSec", 30);
+
+    private static final ResponseBodyCache RISPOSTE = new ResponseBodyCache(
+            AppConfig.getLong("http.cache.body.maxBytes", 64L * 1024 * 1024), 1500);
+
+    private static final String ULTIMA_SCRITTURA = "X-Ultima-Scrittura";
+    private static final String COOKIE_ULTIMA_SCRITTURA = "tf_ultima_scrittura";
+    private static final String SUFFISSO_GZIP = "-gz";
+
     private ControllerUtil() {}
 
-    public static <T> void getById(Context ctx, String pathParam, Function<Integer, T> finder, String entityName) throws Exception {
-        Integer id = Integer.valueOf(ctx.pathParam(pathParam));
-        T entity = finder.apply(id);
-        if (entity != null) {
-            ctx.json(entity);
+    public static void apriScritture(Context ctx) {
+        String valore = ctx.header(ULTIMA_SCRITTURA);
+        if (valore == null) {
+            valore = ctx.cookie(COOKIE_ULTIMA_SCRITTURA);
+        }
+        Long ultima = null;
+        if (valore != null) {
+            try {
+                ultima = Long.parseLong(valore.trim());
+            } catch (NumberFormatException e) {
+                ultima = null;
+            }
+        }
+        DatabaseConnection.setLastWrite(ultima);
+        ctx.attribute(ULTIMA_SCRITTURA, ultima);
+    }
+
+    public static void chiudiScritture(Context ctx) {
+        Long ultima = DatabaseConnection.getLastWrite();
+        DatabaseConnection.setLastWrite(null);
+        if (ultima == null || ultima.equals(ctx.attribute(ULTIMA_SCRITTURA))) {
+            return;
+        }
+        int maxAge = (int) Math.max((DatabaseConnection.getReadYourWritesMs() + 999) / 1000, 1);
+        ctx.header(ULTIMA_SCRITTURA, ultima.toString());
+        ctx.cookie(new Cookie(COOKIE_ULTIMA_SCRITTURA, ultima.toString(), "/", maxAge));
+    }
+
+    public static ResponseBodyCache getCacheRisposte() {
+        return RISPOSTE;
+    }
+
+    public static boolean nonModificato(Context ctx, Tabella... tabelle) {
+        ctx.header(Header.CACHE_CONTROL, "no-cache");
+        return nonModificato(ctx, VersioniTabelle.etag(tabelle));
+    }
+
+    public static boolean nonModificatoOggi(Context ctx, Tabella... tabelle) {
+        ctx.header(Header.CACHE_CONTROL, "no-cache");
+        return nonModificato(ctx, VersioniTabelle.etag(LocalDate.now(), tabelle));
+    }
+
+    public static boolean reportNonModificato(Context ctx, boolean giornaliero, Tabella... tabelle) {
+        ctx.header(Header.CACHE_CONTROL, CACHE_REPORT);
+        return nonModificato(ctx, VersioniTabelle.etag(giornaliero ? LocalDate.now() : null, tabelle));
+    }
+
+    private static boolean nonModificato(Context ctx, String etag) {
+        String trovato = corrisponde(ctx, etag);
+        ctx.header(Header.ETAG, trovato != null ? trovato : etag);
+        if (trovato != null) {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    // Il corpo gzip è un'altra rappresentazione con un proprio ETag forte: il client può rimandare l'uno o
+    // l'altro, e il 304 riporta quello che ha in cache.
+    private static String corrisponde(Context ctx, String etag) {
+        String richiesti = ctx.header(Header.IF_NONE_MATCH);
+        if (richiesti == null) {
+            return null;
+        }
+        String gzip = etagGzip(etag);
+        for (String richiesto : richiesti.split(",")) {
+            String tag = richiesto.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return etag;
+            }
+            if (tag.equals(gzip)) {
+                return gzip;
+            }
+        }
+        return null;
+    }
+
+    private static String etagGzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + SUFFISSO_GZIP + "\"";
+    }
+
+    public static void jsonInCache(Context ctx, Supplier<?> risultato) {
+        String etag = ctx.res().getHeader(Header.ETAG);
+        if (etag == null) {
+            ctx.json(risultato.get());
+            return;
+        }
+        String chiave = ctx.queryString() == null ? ctx.path() : ctx.path() + "?" + ctx.queryString();
+        ResponseBodyCache.Entry entry = RISPOSTE.get(chiave, etag);
+        if (entry == null) {
+            Object valore = risultato.get();
+            String json = ctx.jsonMapper().toJsonString(valore, valore != null ? valore.getClass() : Object.class);
+            entry = RISPOSTE.put(chiave, etag, json.getBytes(StandardCharsets.UTF_8));
+        }
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        ctx.res().addHeader(Header.VARY, Header.ACCEPT_ENCODING);
+        if (entry.getGzip() != null && accettaGzip(ctx)) {
+            ctx.header(Header.CONTENT_ENCODING, "gzip");
+            ctx.header(Header.ETAG, etagGzip(etag));
+            ctx.result(entry.getGzip());
         } else {
-            throw new NotFoundException(entityName);
+            ctx.result(entry.getBody());
+        }
+    }
+
+    private static boolean accettaGzip(Context ctx) {
+        String accettate = ctx.header(Header.ACCEPT_ENCODING);
+        if (accettate == null) {
+            return false;
+        }
+        for (String parte : accettate.split(",")) {
+            String[] token = parte.split(";");
+            String codifica = token[0].trim();
+            if (codifica.equalsIgnoreCase("gzip") || codifica.equals("*")) {
+                return token.length < 2 || !token[1].trim().matches("(?i)q\\s*=\\s*0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    public static <T> void getById(Context ctx, String pathParam, Function<Integer, T> finder, String entityName,
+            Tabella... tabelle) throws Exception {
+        getSingolo(ctx, () -> finder.apply(Integer.valueOf(ctx.pathParam(pathParam))), entityName, tabelle);
+    }
+
+    public static <T> void getSingolo(Context ctx, Supplier<T> finder, String messaggio, Tabella... tabelle) {
+        ctx.header(Header.CACHE_CONTROL, "no-cache");
+        String etag = VersioniTabelle.etag(tabelle);
+        String trovato = corrisponde(ctx, etag);
+        if (trovato != null) {
+            ctx.header(Header.ETAG, trovato);
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return;
+        }
+        T entity = finder.get();
+        if (entity == null) {
+            throw new NotFoundException(messaggio);
+        }
+        ctx.header(Header.ETAG, etag);
+        ctx.json(entity);
+    }
+
+    public static RichiestaPagina richiestaPagina(Context ctx) {
+        String after = ctx.queryParam("after");
+        String sort = ctx.queryParam("sort");
+        String limit = ctx.queryParam("limit");
+        if (after == null && sort == null && limit == null) {
+            return null;
+        }
+        int limite = RichiestaPagina.LIMITE_PREDEFINITO;
+        if (limit != null) {
+            try {
+                limite = Integer.parseInt(limit);
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Parametro limit non valido: " + limit);
+            }
+            if (limite < 1 || limite > RichiestaPagina.LIMITE_MASSIMO) {
+                throw new ValidationException("Il parametro limit deve essere compreso tra 1 e " + RichiestaPagina.LIMITE_MASSIMO);
+            }
+        }
+        return new RichiestaPagina(after, sort, limite);
+    }
+
+    public static LocalDate queryDate(Context ctx, String name) {
+        String value = ctx.queryParam(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Parametro " + name + " non valido (formato atteso yyyy-MM-dd): " + value);
+        }
+    }
+
+    public static Integer queryInt(Context ctx, String name) {
+        String value = ctx.queryParam(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Parametro " + name + " non valido: " + value);
         }
     }
 
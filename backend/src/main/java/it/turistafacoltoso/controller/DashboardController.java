@@ -0,0 +1,24 @@
+package it.turistafacoltoso.controller;
+
+import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.service.DashboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DashboardController {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardController.class);
+    private final DashboardService dashboardService = new DashboardService();
+
+    public void registerRoutes(Javalin app) {
+
+        app.get("/api/dashboard", ctx -> {
+            if (ControllerUtil.nonModificatoOggi(ctx, Tabella.values())) {
+                return;
+            }
+            log.info("Richiesta dashboard");
+            ControllerUtil.jsonInCache(ctx, dashboardService::getDashboard);
+        });
+    }
+}
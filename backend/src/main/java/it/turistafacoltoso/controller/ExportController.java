@@ -0,0 +1,30 @@
+package it.turistafacoltoso.controller;
+
+import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.service.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+    private final ExportService exportService = new ExportService();
+
+    public void registerRoutes(Javalin app) {
+
+        for (Tabella tabella : Tabella.values()) {
+            app.get("/api/" + tabella.getRisorsa() + "/export", ctx -> {
+                String formato = ctx.queryParamAsClass("format", String.class).getOrDefault(ExportService.FORMATO_NDJSON);
+                exportService.verificaFormato(formato);
+
+                boolean csv = ExportService.FORMATO_CSV.equalsIgnoreCase(formato);
+                ctx.contentType(csv ? "text/csv; charset=utf-8" : "application/x-ndjson");
+                ctx.header("Content-Disposition", "attachment; filename=\"" + tabella.getRisorsa() + "." + formato.toLowerCase() + "\"");
+
+                long righe = exportService.esporta(tabella, formato, ctx.outputStream());
+                log.info("Export {} ({}): {} righe", tabella.getNome(), formato, righe);
+            });
+        }
+    }
+}
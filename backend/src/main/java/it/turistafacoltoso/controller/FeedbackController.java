@@ -1,7 +1,9 @@
 package it.turistafacoltoso.controller;
 
 import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.model.Feedback;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.service.FeedbackService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,18 +16,23 @@ public class FeedbackController {
     public void registerRoutes(Javalin app) {
 
         app.get("/api/feedback", ctx -> {
+            if (ControllerUtil.nonModificato(ctx, Tabella.FEEDBACK)) {
+                return;
+            }
+            RichiestaPagina pagina = ControllerUtil.richiestaPagina(ctx);
+            if (pagina != null) {
+                ctx.json(feedbackService.findPagina(pagina));
+                return;
+            }
             log.info("Richiesta lista feedback");
-            ctx.json(feedbackService.findAll());
+            ControllerUtil.jsonInCache(ctx, feedbackService::findAll);
         });
 
-        app.get("/api/feedback/{id}", ctx -> ControllerUtil.getById(ctx, "id", feedbackService::findById, "Feedback non trovato"));
+        app.get("/api/feedback/{id}", ctx -> ControllerUtil.getById(ctx, "id", feedbackService::findById, "Feedback non trovato", Tabella.FEEDBACK));
 
-        app.get("/api/feedback/prenotazione/{prenotazioneId}", ctx -> {
-            int prenotazioneId = Integer.parseInt(ctx.pathParam("prenotazioneId"));
-            Feedback f = feedbackService.findByPrenotazioneId(prenotazioneId);
-            if (f != null) ctx.json(f);
-            else ctx.status(404).json(java.util.Map.of("error", "Feedback non trovato per questa prenotazione"));
-        });
+        app.get("/api/feedback/prenotazione/{prenotazioneId}", ctx -> ControllerUtil.getSingolo(ctx,
+                () -> feedbackService.findByPrenotazioneId(Integer.parseInt(ctx.pathParam("prenotazioneId"))),
+                "Feedback non trovato per questa prenotazione", Tabella.FEEDBACK));
 
         app.post("/api/feedback", ctx -> {
             Feedback feedback = ctx.bodyAsClass(Feedback.class);
@@ -1,7 +1,9 @@
 package it.turistafacoltoso.controller;
 
 import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.service.HostService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,17 +16,22 @@ public class HostController {
     public void registerRoutes(Javalin app) {
 
         app.get("/api/host", ctx -> {
+            if (ControllerUtil.nonModificato(ctx, Tabella.HOST, Tabella.UTENTE)) {
+                return;
+            }
+            RichiestaPagina pagina = ControllerUtil.richiestaPagina(ctx);
+            if (pagina != null) {
+                ctx.json(hostService.findPagina(pagina));
+                return;
+            }
             log.info("Richiesta lista host");
-            ctx.json(hostService.findAll());
+            ControllerUtil.jsonInCache(ctx, hostService::findAll);
         });
 
-        app.get("/api/host/{id}", ctx -> ControllerUtil.getById(ctx, "id", hostService::findById, "Host non trovato"));
+        app.get("/api/host/{id}", ctx -> ControllerUtil.getById(ctx, "id", hostService::findById, "Host non trovato", Tabella.HOST, Tabella.UTENTE));
 
-        app.get("/api/host/codice/{codiceHost}", ctx -> {
-            Host host = hostService.findByCodiceHost(ctx.pathParam("codiceHost"));
-            if (host != null) ctx.json(host);
-            else ctx.status(404).json(java.util.Map.of("error", "Host non trovato"));
-        });
+        app.get("/api/host/codice/{codiceHost}", ctx -> ControllerUtil.getSingolo(ctx,
+                () -> hostService.findByCodiceHost(ctx.pathParam("codiceHost")), "Host non trovato", Tabella.HOST, Tabella.UTENTE));
 
         app.post("/api/host", ctx -> {
             Host host = ctx.bodyAsClass(Host.class);
@@ -46,13 +53,19 @@ public class HostController {
         });
 
         app.get("/api/host/report/top-prenotazioni", ctx -> {
+            if (ControllerUtil.reportNonModificato(ctx, true, Tabella.HOST, Tabella.UTENTE, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE)) {
+                return;
+            }
             log.info("Richiesta host con più prenotazioni ultimo mese");
-            ctx.json(hostService.findHostPiuPrenotazioniUltimoMese());
+            ControllerUtil.jsonInCache(ctx, hostService::findHostPiuPrenotazioniUltimoMese);
         });
 
         app.get("/api/host/report/super-host", ctx -> {
+            if (ControllerUtil.reportNonModificato(ctx, false, Tabella.HOST, Tabella.UTENTE, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE)) {
+                return;
+            }
             log.info("Richiesta lista super-host");
-            ctx.json(hostService.findAllSuperHost());
+            ControllerUtil.jsonInCache(ctx, hostService::findAllSuperHost);
         });
     }
 }
@@ -0,0 +1,29 @@
+package it.turistafacoltoso.controller;
+
+import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.NotFoundException;
+import it.turistafacoltoso.model.EsitoImport;
+import it.turistafacoltoso.service.ImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ImportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportController.class);
+    private final ImportService importService = new ImportService();
+
+    public void registerRoutes(Javalin app) {
+
+        app.post("/api/admin/import/{entita}", ctx -> {
+            Tabella tabella = Tabella.fromRisorsa(ctx.pathParam("entita"));
+            if (tabella == null) {
+                throw new NotFoundException("Entità non trovata: " + ctx.pathParam("entita"));
+            }
+            String formato = ctx.queryParamAsClass("format", String.class).getOrDefault(ImportService.FORMATO_CSV);
+            EsitoImport esito = importService.importa(tabella, ctx.bodyInputStream(), formato);
+            log.info("Import {}: {} righe in {} ms", tabella.getNome(), esito.getRighe(), esito.getDurataMs());
+            ctx.json(esito);
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package it.turistafacoltoso.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.javalin.Javalin;
+import it.turistafacoltoso.service.CacheEntita;
+import it.turistafacoltoso.service.FiltroCodiciHost;
+import it.turistafacoltoso.service.ReportCache;
+import it.turistafacoltoso.service.SingleFlight;
+import it.turistafacoltoso.util.ConnectionPool;
+import it.turistafacoltoso.util.DatabaseConnection;
+import it.turistafacoltoso.util.PinningMonitor;
+import it.turistafacoltoso.util.ResponseBodyCache;
+import it.turistafacoltoso.util.StatementCache;
+
+public class MetricsController {
+
+    public void registerRoutes(Javalin app) {
+
+        app.get("/api/metrics/db", ctx -> {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("pool", poolMetrics(DatabaseConnection.getPool()));
+            metrics.put("repliche", DatabaseConnection.getReplicas().stream().map(MetricsController::poolMetrics).toList());
+            metrics.put("statementCache", statementCacheMetrics());
+            ctx.json(metrics);
+        });
+
+        app.get("/api/metrics/cache", ctx -> {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("report", ReportCache.getInstance().getStatistiche());
+            metrics.put("entita", CacheEntita.getStatistiche());
+            metrics.put("filtroCodiciHost", FiltroCodiciHost.getInstance().getStatistiche());
+            metrics.put("risposte", cacheRisposteMetrics(ControllerUtil.getCacheRisposte()));
+            ctx.json(metrics);
+        });
+
+        app.get("/api/metrics/server", ctx -> {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("virtualThreads", PinningMonitor.isRunning());
+            metrics.put("pinningEventi", PinningMonitor.getPinnedEvents());
+            metrics.put("pinningMsTotali", PinningMonitor.getPinnedMillis());
+            metrics.put("threadAttivi", Thread.activeCount());
+            metrics.put("singleFlight", SingleFlight.getStatistiche());
+            ctx.json(metrics);
+        });
+    }
+
+    static Map<String, Object> poolMetrics(ConnectionPool pool) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("nome", pool.getName());
+        m.put("attive", pool.getActiveConnections());
+        m.put("inattive", pool.getIdleConnections());
+        m.put("totali", pool.getTotalConnections());
+        m.put("inAttesa", pool.getThreadsAwaitingConnection());
+        m.put("create", pool.getCreatedConnections());
+        m.put("chiuse", pool.getDestroyedConnections());
+        m.put("timeoutAttesa", pool.getBorrowTimeouts());
+        m.put("leakRilevati", pool.getLeaksDetected());
+        return m;
+    }
+
+    static Map<String, Object> cacheRisposteMetrics(ResponseBodyCache cache) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("voci", cache.getSize());
+        m.put("byte", cache.getBytes());
+        m.put("hit", cache.getHits());
+        m.put("miss", cache.getMisses());
+        m.put("evictions", cache.getEvictions());
+        return m;
+    }
+
+    static Map<String, Object> statementCacheMetrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hit", StatementCache.getHits());
+        m.put("miss", StatementCache.getMisses());
+        m.put("evictions", StatementCache.getEvictions());
+        m.put("hitRatio", StatementCache.getHitRatio());
+        return m;
+    }
+}
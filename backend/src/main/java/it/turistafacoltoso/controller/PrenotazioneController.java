@@ -1,11 +1,17 @@
 package it.turistafacoltoso.controller;
 
 import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.model.EsitoPrenotazioneBatch;
 import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.service.PrenotazioneService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class PrenotazioneController {
 
     private static final Logger log = LoggerFactory.getLogger(PrenotazioneController.class);
@@ -14,19 +20,25 @@ public class PrenotazioneController {
     public void registerRoutes(Javalin app) {
 
         app.get("/api/prenotazioni", ctx -> {
+            if (ControllerUtil.nonModificato(ctx, Tabella.PRENOTAZIONE)) {
+                return;
+            }
+            RichiestaPagina pagina = ControllerUtil.richiestaPagina(ctx);
+            if (pagina != null) {
+                ctx.json(prenotazioneService.findPagina(pagina));
+                return;
+            }
             log.info("Richiesta lista prenotazioni");
-            ctx.json(prenotazioneService.findAll());
+            ControllerUtil.jsonInCache(ctx, prenotazioneService::findAll);
         });
 
-        app.get("/api/prenotazioni/{id}", ctx -> ControllerUtil.getById(ctx, "id", prenotazioneService::findById, "Prenotazione non trovata"));
+        app.get("/api/prenotazioni/{id}", ctx -> ControllerUtil.getById(ctx, "id", prenotazioneService::findById, "Prenotazione non trovata", Tabella.PRENOTAZIONE));
 
-        app.get("/api/prenotazioni/ultima/{utenteId}", ctx -> {
+        app.get("/api/prenotazioni/ultima/{utenteId}", ctx -> ControllerUtil.getSingolo(ctx, () -> {
             int utenteId = Integer.parseInt(ctx.pathParam("utenteId"));
             log.info("Richiesta ultima prenotazione per utente: {}", utenteId);
-            Prenotazione p = prenotazioneService.findUltimaByUtenteId(utenteId);
-            if (p != null) ctx.json(p);
-            else ctx.status(404).json(java.util.Map.of("error", "Nessuna prenotazione trovata per questo utente"));
-        });
+            return prenotazioneService.findUltimaByUtenteId(utenteId);
+        }, "Nessuna prenotazione trovata per questo utente", Tabella.PRENOTAZIONE));
 
         app.post("/api/prenotazioni", ctx -> {
             Prenotazione prenotazione = ctx.bodyAsClass(Prenotazione.class);
@@ -35,6 +47,14 @@ public class PrenotazioneController {
             ctx.status(201).json(created);
         });
 
+        app.post("/api/prenotazioni/batch", ctx -> {
+            List<Prenotazione> prenotazioni = Arrays.asList(ctx.bodyAsClass(Prenotazione[].class));
+            List<EsitoPrenotazioneBatch> esiti = prenotazioneService.createBatch(prenotazioni);
+            long create = esiti.stream().filter(e -> EsitoPrenotazioneBatch.CREATA.equals(e.getEsito())).count();
+            log.info("Batch prenotazioni: {} create, {} scartate", create, esiti.size() - create);
+            ctx.json(esiti);
+        });
+
         app.put("/api/prenotazioni/{id}", ctx -> {
             int id = Integer.parseInt(ctx.pathParam("id"));
             Prenotazione p = ctx.bodyAsClass(Prenotazione.class);
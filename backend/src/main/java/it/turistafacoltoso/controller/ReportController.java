@@ -0,0 +1,28 @@
+package it.turistafacoltoso.controller;
+
+import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.service.ReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ReportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportController.class);
+    private final ReportService reportService = new ReportService();
+
+    public void registerRoutes(Javalin app) {
+
+        app.get("/api/report/top", ctx -> {
+            if (ControllerUtil.reportNonModificato(ctx, true, Tabella.PRENOTAZIONE, Tabella.ABITAZIONE, Tabella.HOST, Tabella.UTENTE)) {
+                return;
+            }
+            String entity = ctx.queryParam("entity");
+            Integer window = ControllerUtil.queryInt(ctx, "window");
+            Integer k = ControllerUtil.queryInt(ctx, "k");
+            String citta = ctx.queryParam("citta");
+            log.info("Richiesta top {} su {} giorni (citta: {})", entity, window, citta);
+            ControllerUtil.jsonInCache(ctx, () -> reportService.getTop(entity, window, k, citta));
+        });
+    }
+}
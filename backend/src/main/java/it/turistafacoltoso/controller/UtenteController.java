@@ -1,6 +1,8 @@
 package it.turistafacoltoso.controller;
 
 import io.javalin.Javalin;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.model.Utente;
 import it.turistafacoltoso.service.UtenteService;
 import org.slf4j.Logger;
@@ -14,11 +16,19 @@ public class UtenteController {
     public void registerRoutes(Javalin app) {
 
         app.get("/api/utenti", ctx -> {
+            if (ControllerUtil.nonModificato(ctx, Tabella.UTENTE)) {
+                return;
+            }
+            RichiestaPagina pagina = ControllerUtil.richiestaPagina(ctx);
+            if (pagina != null) {
+                ctx.json(utenteService.findPagina(pagina));
+                return;
+            }
             log.info("Richiesta lista utenti");
-            ctx.json(utenteService.findAll());
+            ControllerUtil.jsonInCache(ctx, utenteService::findAll);
         });
 
-        app.get("/api/utenti/{id}", ctx -> ControllerUtil.getById(ctx, "id", utenteService::findById, "Utente non trovato"));
+        app.get("/api/utenti/{id}", ctx -> ControllerUtil.getById(ctx, "id", utenteService::findById, "Utente non trovato", Tabella.UTENTE));
 
         app.post("/api/utenti", ctx -> {
             Utente utente = ctx.bodyAsClass(Utente.class);
@@ -40,8 +50,11 @@ public class UtenteController {
         });
 
         app.get("/api/utenti/report/top-giorni", ctx -> {
+            if (ControllerUtil.reportNonModificato(ctx, true, Tabella.UTENTE, Tabella.PRENOTAZIONE)) {
+                return;
+            }
             log.info("Richiesta top 5 utenti per giorni prenotati ultimo mese");
-            ctx.json(utenteService.findTop5UtentiPiuGiorniUltimoMese());
+            ControllerUtil.jsonInCache(ctx, utenteService::findTop5UtentiPiuGiorniUltimoMese);
         });
     }
 }
@@ -1,21 +1,34 @@
 package it.turistafacoltoso.dao;
 
 import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AbitazioneDAO {
 
+    private static final Map<String, ChiaveOrdinamento> ORDINAMENTI = Map.of(
+            "id", new ChiaveOrdinamento("id", "integer"),
+            "nome", new ChiaveOrdinamento("nome", "varchar"),
+            "prezzo", new ChiaveOrdinamento("prezzo", "numeric"),
+            "postiLetto", new ChiaveOrdinamento("posti_letto", "integer"),
+            "dataInizio", new ChiaveOrdinamento("data_inizio", "date"),
+            "hostId", new ChiaveOrdinamento("host_id", "integer"));
+
     public List<Abitazione> findAll() throws SQLException {
         List<Abitazione> abitazioni = new ArrayList<>();
         String sql = "SELECT * FROM abitazione ORDER BY id";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 abitazioni.add(mapRowToAbitazione(rs));
@@ -24,10 +37,14 @@ public class AbitazioneDAO {
         return abitazioni;
     }
 
+    public Pagina<Abitazione> findPagina(RichiestaPagina richiesta) throws SQLException {
+        return KeysetPaginator.findPagina("*", "abitazione", ORDINAMENTI, richiesta, this::mapRowToAbitazione);
+    }
+
     public Abitazione findById(Integer id) throws SQLException {
         String sql = "SELECT * FROM abitazione WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -40,6 +57,24 @@ public class AbitazioneDAO {
         return null;
     }
 
+    public Map<Integer, Abitazione> findByIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Abitazione> abitazioni = new HashMap<>();
+        String sql = "SELECT * FROM abitazione WHERE id = ANY(?)";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Abitazione a = mapRowToAbitazione(rs);
+                    abitazioni.put(a.getId(), a);
+                }
+            }
+        }
+        return abitazioni;
+    }
+
     public Abitazione insert(Abitazione abitazione) throws SQLException {
         String sql = """
             INSERT INTO abitazione (nome, indirizzo, locali, posti_letto, piano, prezzo, data_inizio, data_fine, host_id)
@@ -72,12 +107,14 @@ public class AbitazioneDAO {
         return abitazione;
     }
 
-    public boolean update(Abitazione abitazione) throws SQLException {
+    public Abitazione update(Abitazione abitazione) throws SQLException {
         String sql = """
-            UPDATE abitazione
+            UPDATE abitazione a
             SET nome = ?, indirizzo = ?, locali = ?, posti_letto = ?, piano = ?,
                 prezzo = ?, data_inizio = ?, data_fine = ?, host_id = ?
-            WHERE id = ?
+            FROM (SELECT * FROM abitazione WHERE id = ? FOR UPDATE) prima
+            WHERE a.id = prima.id
+            RETURNING prima.*
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -98,18 +135,22 @@ public class AbitazioneDAO {
             ps.setInt(9, abitazione.getHostId());
             ps.setInt(10, abitazione.getId());
 
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRowToAbitazione(rs) : null;
+            }
         }
     }
 
-    public boolean delete(Integer id) throws SQLException {
-        String sql = "DELETE FROM abitazione WHERE id = ?";
+    public Abitazione delete(Integer id) throws SQLException {
+        String sql = "DELETE FROM abitazione WHERE id = ? RETURNING *";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRowToAbitazione(rs) : null;
+            }
         }
     }
 
@@ -121,7 +162,7 @@ public class AbitazioneDAO {
             WHERE h.codice_host = ?
             """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, codiceHost);
@@ -134,43 +175,7 @@ public class AbitazioneDAO {
         return abitazioni;
     }
 
-    public Abitazione findPiuGettonataUltimoMese() throws SQLException {
-        String sql = """
-            SELECT a.*, COUNT(p.id) AS num_prenotazioni
-            FROM abitazione a
-            JOIN prenotazione p ON a.id = p.abitazione_id
-            WHERE p.data_inizio >= CURRENT_DATE - INTERVAL '1 month'
-            GROUP BY a.id
-            ORDER BY num_prenotazioni DESC
-            LIMIT 1
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            if (rs.next()) {
-                return mapRowToAbitazione(rs);
-            }
-        }
-        return null;
-    }
-
-    public Double getMediaPostiLetto() throws SQLException {
-        String sql = "SELECT AVG(posti_letto) AS media FROM abitazione";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            if (rs.next()) {
-                return rs.getDouble("media");
-            }
-        }
-        return 0.0;
-    }
-
-    private Abitazione mapRowToAbitazione(ResultSet rs) throws SQLException {
+    Abitazione mapRowToAbitazione(ResultSet rs) throws SQLException {
         Abitazione a = new Abitazione();
         a.setId(rs.getInt("id"));
         a.setNome(rs.getString("nome"));
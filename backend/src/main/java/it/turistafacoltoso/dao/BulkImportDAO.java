@@ -0,0 +1,123 @@
+package it.turistafacoltoso.dao;
+
+import it.turistafacoltoso.exception.ValidationException;
+import it.turistafacoltoso.model.EsitoImport;
+import it.turistafacoltoso.util.DatabaseConnection;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class BulkImportDAO {
+
+    public EsitoImport importa(Tabella tabella, Reader csv) throws SQLException, IOException {
+        EsitoImport esito = new EsitoImport(tabella.getNome());
+        String staging = "stg_" + tabella.getNome();
+        String colonne = String.join(", ", tabella.getColonne());
+        String colonneFile = String.join(", ", leggiIntestazione(tabella, csv));
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TEMP TABLE " + staging + " (LIKE " + tabella.getNome() + " INCLUDING DEFAULTS) ON COMMIT DROP");
+                }
+
+                CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+                long righe = copyManager.copyIn(
+                        "COPY " + staging + " (" + colonneFile + ") FROM STDIN WITH (FORMAT csv)", csv);
+                esito.setRighe(righe);
+
+                verificaUnicita(conn, tabella, staging, esito);
+                verificaChiaviEsterne(conn, tabella, staging, esito);
+                if (!esito.isValido()) {
+                    conn.rollback();
+                    return esito;
+                }
+
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("INSERT INTO " + tabella.getNome() + " (" + colonne + ") SELECT " + colonne + " FROM " + staging);
+                    if (tabella.isSerial()) {
+                        stmt.execute("SELECT setval(pg_get_serial_sequence('" + tabella.getNome() + "', 'id'), "
+                                + "(SELECT COALESCE(MAX(id), 1) FROM " + tabella.getNome() + "))");
+                    }
+                }
+
+                conn.commit();
+            } catch (SQLException | IOException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return esito;
+    }
+
+    // COPY con HEADER true scarta la prima riga senza guardarla: l'intestazione si legge qui e diventa la lista
+    // di colonne della COPY, così un file con le colonne in un altro ordine non finisce nei campi sbagliati.
+    private List<String> leggiIntestazione(Tabella tabella, Reader csv) throws IOException {
+        StringBuilder riga = new StringBuilder();
+        int c;
+        while ((c = csv.read()) != -1 && c != '\n') {
+            riga.append((char) c);
+        }
+        if (riga.length() > 0 && riga.charAt(0) == '\uFEFF') {
+            riga.deleteCharAt(0);
+        }
+        if (riga.length() > 0 && riga.charAt(riga.length() - 1) == '\r') {
+            riga.setLength(riga.length() - 1);
+        }
+
+        List<String> colonne = new ArrayList<>();
+        for (String campo : riga.toString().split(",", -1)) {
+            String colonna = campo.trim();
+            if (colonna.length() >= 2 && colonna.startsWith("\"") && colonna.endsWith("\"")) {
+                colonna = colonna.substring(1, colonna.length() - 1);
+            }
+            colonne.add(colonna.toLowerCase(Locale.ROOT));
+        }
+        if (colonne.size() != tabella.getColonne().size() || !new HashSet<>(colonne).equals(new HashSet<>(tabella.getColonne()))) {
+            throw new ValidationException("Intestazione non valida per " + tabella.getNome() + ": " + riga
+                    + " (colonne attese: " + String.join(",", tabella.getColonne()) + ")");
+        }
+        return colonne;
+    }
+
+    private void verificaUnicita(Connection conn, Tabella tabella, String staging, EsitoImport esito) throws SQLException {
+        for (String colonna : tabella.getColonneUniche()) {
+            long duplicatiFile = conta(conn, "SELECT COUNT(" + colonna + ") - COUNT(DISTINCT " + colonna + ") FROM " + staging);
+            if (duplicatiFile > 0) {
+                esito.getErrori().add(duplicatiFile + " valori duplicati di " + colonna + " nel file");
+            }
+            long giaPresenti = conta(conn, "SELECT COUNT(*) FROM " + staging + " s JOIN " + tabella.getNome()
+                    + " t ON t." + colonna + " = s." + colonna);
+            if (giaPresenti > 0) {
+                esito.getErrori().add(giaPresenti + " righe con " + colonna + " già presente in " + tabella.getNome());
+            }
+        }
+    }
+
+    private void verificaChiaviEsterne(Connection conn, Tabella tabella, String staging, EsitoImport esito) throws SQLException {
+        for (Map.Entry<String, String> fk : tabella.getChiaviEsterne().entrySet()) {
+            long orfane = conta(conn, "SELECT COUNT(*) FROM " + staging + " s WHERE NOT EXISTS "
+                    + "(SELECT 1 FROM " + fk.getValue() + " r WHERE r.id = s." + fk.getKey() + ")");
+            if (orfane > 0) {
+                esito.getErrori().add(orfane + " righe con " + fk.getKey() + " inesistente in " + fk.getValue());
+            }
+        }
+    }
+
+    private long conta(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package it.turistafacoltoso.dao;
+
+public class ChiaveOrdinamento {
+
+    private final String colonna;
+    private final String tipoSql;
+
+    public ChiaveOrdinamento(String colonna, String tipoSql) {
+        this.colonna = colonna;
+        this.tipoSql = tipoSql;
+    }
+
+    public String getColonna() {
+        return colonna;
+    }
+
+    public String getTipoSql() {
+        return tipoSql;
+    }
+}
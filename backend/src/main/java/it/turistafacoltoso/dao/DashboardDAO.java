@@ -0,0 +1,52 @@
+package it.turistafacoltoso.dao;
+
+import it.turistafacoltoso.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.BitSet;
+import java.util.function.BiConsumer;
+
+public class DashboardDAO {
+
+    public BitSet findIdUtenti() throws SQLException {
+        return findIds("SELECT id FROM utente");
+    }
+
+    public BitSet findIdHost() throws SQLException {
+        return findIds("SELECT id FROM host");
+    }
+
+    public void forEachPunteggio(BiConsumer<Integer, Integer> consumer) throws SQLException {
+        String sql = "SELECT prenotazione_id, punteggio FROM feedback";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setFetchSize(5000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int prenotazioneId = rs.getInt("prenotazione_id");
+                        int punteggio = rs.getInt("punteggio");
+                        consumer.accept(prenotazioneId, rs.wasNull() ? null : punteggio);
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
+    private BitSet findIds(String sql) throws SQLException {
+        BitSet ids = new BitSet();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                ids.set(rs.getInt("id"));
+            }
+        }
+        return ids;
+    }
+}
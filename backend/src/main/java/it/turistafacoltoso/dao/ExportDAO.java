@@ -0,0 +1,74 @@
+package it.turistafacoltoso.dao;
+
+import it.turistafacoltoso.util.DatabaseConnection;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ExportDAO {
+
+    private static final int FETCH_SIZE = 1000;
+
+    @FunctionalInterface
+    public interface RowWriter {
+        void write(Map<String, Object> row) throws IOException;
+    }
+
+    public long esportaCsv(Tabella tabella, OutputStream out) throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            return copyManager.copyOut("COPY (" + query(tabella) + ") TO STDOUT WITH (FORMAT csv, HEADER true)", out);
+        }
+    }
+
+    public long esportaRighe(Tabella tabella, RowWriter writer) throws SQLException, IOException {
+        long righe = 0;
+
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(query(tabella))) {
+                ps.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    String[] campi = new String[meta.getColumnCount()];
+                    for (int i = 0; i < campi.length; i++) {
+                        campi[i] = Tabella.toCamelCase(meta.getColumnLabel(i + 1));
+                    }
+                    while (rs.next()) {
+                        writer.write(mapRow(rs, campi));
+                        righe++;
+                    }
+                }
+            } finally {
+                conn.commit();
+            }
+        }
+        return righe;
+    }
+
+    private String query(Tabella tabella) {
+        if (tabella == Tabella.HOST) {
+            return "SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host "
+                    + "FROM host h JOIN utente u ON h.id = u.id ORDER BY u.id";
+        }
+        return "SELECT " + String.join(", ", tabella.getColonne()) + " FROM " + tabella.getNome() + " ORDER BY id";
+    }
+
+    private Map<String, Object> mapRow(ResultSet rs, String[] campi) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < campi.length; i++) {
+            Object value = rs.getObject(i + 1);
+            if (value instanceof Date date) {
+                value = date.toLocalDate();
+            }
+            row.put(campi[i], value);
+        }
+        return row;
+    }
+}
@@ -1,21 +1,28 @@
 package it.turistafacoltoso.dao;
 
 import it.turistafacoltoso.model.Feedback;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class FeedbackDAO {
 
+    private static final Map<String, ChiaveOrdinamento> ORDINAMENTI = Map.of(
+            "id", new ChiaveOrdinamento("id", "integer"),
+            "prenotazioneId", new ChiaveOrdinamento("prenotazione_id", "integer"));
+
     public List<Feedback> findAll() throws SQLException {
         List<Feedback> feedbacks = new ArrayList<>();
         String sql = "SELECT * FROM feedback ORDER BY id";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 feedbacks.add(mapRowToFeedback(rs));
@@ -24,10 +31,14 @@ public class FeedbackDAO {
         return feedbacks;
     }
 
+    public Pagina<Feedback> findPagina(RichiestaPagina richiesta) throws SQLException {
+        return KeysetPaginator.findPagina("*", "feedback", ORDINAMENTI, richiesta, this::mapRowToFeedback);
+    }
+
     public Feedback findById(Integer id) throws SQLException {
         String sql = "SELECT * FROM feedback WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -43,7 +54,7 @@ public class FeedbackDAO {
     public Feedback findByPrenotazioneId(Integer prenotazioneId) throws SQLException {
         String sql = "SELECT * FROM feedback WHERE prenotazione_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, prenotazioneId);
@@ -59,7 +70,9 @@ public class FeedbackDAO {
     public Feedback insert(Feedback feedback) throws SQLException {
         String sql = """
             INSERT INTO feedback (titolo, testo, punteggio, prenotazione_id)
-            VALUES (?, ?, ?, ?) RETURNING id
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (prenotazione_id) DO NOTHING
+            RETURNING id
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -71,19 +84,22 @@ public class FeedbackDAO {
             ps.setInt(4, feedback.getPrenotazioneId());
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    feedback.setId(rs.getInt("id"));
+                if (!rs.next()) {
+                    return null;
                 }
+                feedback.setId(rs.getInt("id"));
             }
         }
         return feedback;
     }
 
-    public boolean update(Feedback feedback) throws SQLException {
+    public Feedback update(Feedback feedback) throws SQLException {
         String sql = """
-            UPDATE feedback
+            UPDATE feedback f
             SET titolo = ?, testo = ?, punteggio = ?, prenotazione_id = ?
-            WHERE id = ?
+            FROM (SELECT * FROM feedback WHERE id = ? FOR UPDATE) prima
+            WHERE f.id = prima.id
+            RETURNING prima.*
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -95,18 +111,22 @@ public class FeedbackDAO {
             ps.setInt(4, feedback.getPrenotazioneId());
             ps.setInt(5, feedback.getId());
 
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRowToFeedback(rs) : null;
+            }
         }
     }
 
-    public boolean delete(Integer id) throws SQLException {
-        String sql = "DELETE FROM feedback WHERE id = ?";
+    public Feedback delete(Integer id) throws SQLException {
+        String sql = "DELETE FROM feedback WHERE id = ? RETURNING *";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRowToFeedback(rs) : null;
+            }
         }
     }
 
@@ -1,14 +1,25 @@
 package it.turistafacoltoso.dao;
 
 import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class HostDAO {
 
+    private static final Map<String, ChiaveOrdinamento> ORDINAMENTI = Map.of(
+            "id", new ChiaveOrdinamento("u.id", "integer"),
+            "nome", new ChiaveOrdinamento("u.nome", "varchar"),
+            "cognome", new ChiaveOrdinamento("u.cognome", "varchar"),
+            "email", new ChiaveOrdinamento("u.email", "varchar"),
+            "codiceHost", new ChiaveOrdinamento("h.codice_host", "varchar"));
+
     public List<Host> findAll() throws SQLException {
         List<Host> hosts = new ArrayList<>();
         String sql = """
@@ -18,9 +29,9 @@ public class HostDAO {
             ORDER BY u.id
             """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 hosts.add(mapRowToHost(rs));
@@ -29,6 +40,11 @@ public class HostDAO {
         return hosts;
     }
 
+    public Pagina<Host> findPagina(RichiestaPagina richiesta) throws SQLException {
+        return KeysetPaginator.findPagina("u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host",
+                "host h JOIN utente u ON h.id = u.id", ORDINAMENTI, richiesta, this::mapRowToHost);
+    }
+
     public Host findById(Integer id) throws SQLException {
         String sql = """
             SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host
@@ -37,7 +53,7 @@ public class HostDAO {
             WHERE h.id = ?
             """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -50,151 +66,127 @@ public class HostDAO {
         return null;
     }
 
-    public Host findByCodiceHost(String codiceHost) throws SQLException {
+    public List<Host> findByIds(Collection<Integer> ids) throws SQLException {
+        List<Host> hosts = new ArrayList<>();
         String sql = """
             SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host
             FROM host h
             JOIN utente u ON h.id = u.id
-            WHERE h.codice_host = ?
+            WHERE h.id = ANY(?)
+            ORDER BY u.id
             """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setString(1, codiceHost);
+            ps.setArray(1, conn.createArrayOf("integer", ids.toArray()));
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapRowToHost(rs);
+                while (rs.next()) {
+                    hosts.add(mapRowToHost(rs));
                 }
             }
         }
-        return null;
+        return hosts;
     }
 
-    public Host insert(Host host) throws SQLException {
-        String sqlUtente = "INSERT INTO utente (nome, cognome, email, indirizzo) VALUES (?, ?, ?, ?) RETURNING id";
-        String sqlHost = "INSERT INTO host (id, codice_host) VALUES (?, ?)";
-
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                try (PreparedStatement ps = conn.prepareStatement(sqlUtente)) {
-                    ps.setString(1, host.getNome());
-                    ps.setString(2, host.getCognome());
-                    ps.setString(3, host.getEmail());
-                    ps.setString(4, host.getIndirizzo());
-
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            host.setId(rs.getInt("id"));
-                        }
-                    }
-                }
+    public List<String> findAllCodici() throws SQLException {
+        List<String> codici = new ArrayList<>();
+        String sql = "SELECT codice_host FROM host";
 
-                try (PreparedStatement ps = conn.prepareStatement(sqlHost)) {
-                    ps.setInt(1, host.getId());
-                    ps.setString(2, host.getCodiceHost());
-                    ps.executeUpdate();
-                }
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
-                conn.commit();
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
+            while (rs.next()) {
+                codici.add(rs.getString("codice_host"));
             }
         }
-        return host;
+        return codici;
     }
 
-    public boolean update(Host host) throws SQLException {
-        String sqlUtente = "UPDATE utente SET nome = ?, cognome = ?, email = ?, indirizzo = ? WHERE id = ?";
-        String sqlHost = "UPDATE host SET codice_host = ? WHERE id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                try (PreparedStatement ps = conn.prepareStatement(sqlUtente)) {
-                    ps.setString(1, host.getNome());
-                    ps.setString(2, host.getCognome());
-                    ps.setString(3, host.getEmail());
-                    ps.setString(4, host.getIndirizzo());
-                    ps.setInt(5, host.getId());
-                    ps.executeUpdate();
-                }
+    public Host findByCodiceHost(String codiceHost) throws SQLException {
+        String sql = """
+            SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host
+            FROM host h
+            JOIN utente u ON h.id = u.id
+            WHERE h.codice_host = ?
+            """;
 
-                try (PreparedStatement ps = conn.prepareStatement(sqlHost)) {
-                    ps.setString(1, host.getCodiceHost());
-                    ps.setInt(2, host.getId());
-                    ps.executeUpdate();
-                }
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
-                conn.commit();
-                return true;
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
+            ps.setString(1, codiceHost);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapRowToHost(rs);
+                }
             }
         }
+        return null;
     }
 
-    public boolean delete(Integer id) throws SQLException {
-        String sql = "DELETE FROM utente WHERE id = ?";
+    public Host insert(Host host) throws SQLException {
+        String sql = """
+            WITH nuovo_utente AS (
+                INSERT INTO utente (nome, cognome, email, indirizzo) VALUES (?, ?, ?, ?)
+                RETURNING id
+            )
+            INSERT INTO host (id, codice_host)
+            SELECT id, ? FROM nuovo_utente
+            RETURNING id
+            """;
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            ps.setString(1, host.getNome());
+            ps.setString(2, host.getCognome());
+            ps.setString(3, host.getEmail());
+            ps.setString(4, host.getIndirizzo());
+            ps.setString(5, host.getCodiceHost());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    host.setId(rs.getInt("id"));
+                }
+            }
         }
+        return host;
     }
 
-    public List<Host> findHostPiuPrenotazioniUltimoMese() throws SQLException {
-        List<Host> hosts = new ArrayList<>();
+    public boolean update(Host host) throws SQLException {
         String sql = """
-            SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host,
-                   COUNT(p.id) AS num_prenotazioni
-            FROM host h
-            JOIN utente u ON h.id = u.id
-            JOIN abitazione a ON h.id = a.host_id
-            JOIN prenotazione p ON a.id = p.abitazione_id
-            WHERE p.data_inizio >= CURRENT_DATE - INTERVAL '1 month'
-            GROUP BY u.id, h.codice_host
-            ORDER BY num_prenotazioni DESC
+            WITH host_aggiornato AS (
+                UPDATE host SET codice_host = ? WHERE id = ?
+                RETURNING id
+            )
+            UPDATE utente SET nome = ?, cognome = ?, email = ?, indirizzo = ?
+            WHERE id IN (SELECT id FROM host_aggiornato)
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            while (rs.next()) {
-                hosts.add(mapRowToHost(rs));
-            }
+            ps.setString(1, host.getCodiceHost());
+            ps.setInt(2, host.getId());
+            ps.setString(3, host.getNome());
+            ps.setString(4, host.getCognome());
+            ps.setString(5, host.getEmail());
+            ps.setString(6, host.getIndirizzo());
+
+            return ps.executeUpdate() > 0;
         }
-        return hosts;
     }
 
-    public List<Host> findAllSuperHost() throws SQLException {
-        List<Host> hosts = new ArrayList<>();
-        String sql = """
-            SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host,
-                   COUNT(p.id) AS totale_prenotazioni
-            FROM host h
-            JOIN utente u ON h.id = u.id
-            JOIN abitazione a ON h.id = a.host_id
-            JOIN prenotazione p ON a.id = p.abitazione_id
-            GROUP BY u.id, h.codice_host
-            HAVING COUNT(p.id) >= 100
-            """;
+    public boolean delete(Integer id) throws SQLException {
+        String sql = "DELETE FROM utente WHERE id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            while (rs.next()) {
-                hosts.add(mapRowToHost(rs));
-            }
+            ps.setInt(1, id);
+            return ps.executeUpdate() > 0;
         }
-        return hosts;
     }
 
     private Host mapRowToHost(ResultSet rs) throws SQLException {
@@ -0,0 +1,96 @@
+package it.turistafacoltoso.dao;
+
+import it.turistafacoltoso.exception.ValidationException;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
+import it.turistafacoltoso.util.Cursore;
+import it.turistafacoltoso.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class KeysetPaginator {
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private KeysetPaginator() {
+    }
+
+    public static <T> Pagina<T> findPagina(String colonne, String from, Map<String, ChiaveOrdinamento> chiavi,
+                                           RichiestaPagina richiesta, RowMapper<T> mapper) throws SQLException {
+        String sort = richiesta.getSort() == null || richiesta.getSort().isBlank() ? "id" : richiesta.getSort().trim();
+        boolean desc = sort.startsWith("-");
+        String nomeChiave = desc ? sort.substring(1) : sort;
+        ChiaveOrdinamento chiave = chiavi.get(nomeChiave);
+        if (chiave == null) {
+            throw new ValidationException("Ordinamento non consentito: " + nomeChiave + " (valori ammessi: " + chiavi.keySet() + ")");
+        }
+        ChiaveOrdinamento id = chiavi.get("id");
+        boolean perId = chiave == id;
+
+        Cursore cursore = richiesta.getAfter() == null || richiesta.getAfter().isBlank() ? null : Cursore.decode(richiesta.getAfter());
+        if (cursore != null && (!cursore.getSort().equals(nomeChiave) || cursore.isDesc() != desc)) {
+            throw new ValidationException("Il cursore non corrisponde all'ordinamento richiesto");
+        }
+
+        String op = desc ? "<" : ">";
+        String dir = desc ? " DESC" : "";
+        StringBuilder sql = new StringBuilder("SELECT ").append(colonne)
+                .append(", ").append(chiave.getColonna()).append("::text AS chiave_ordinamento FROM ").append(from);
+        if (cursore != null) {
+            if (perId) {
+                sql.append(" WHERE ").append(id.getColonna()).append(' ').append(op).append(" ?");
+            } else {
+                sql.append(" WHERE (").append(chiave.getColonna()).append(", ").append(id.getColonna()).append(") ")
+                        .append(op).append(" (CAST(? AS ").append(chiave.getTipoSql()).append("), ?)");
+            }
+        }
+        sql.append(" ORDER BY ").append(chiave.getColonna()).append(dir);
+        if (!perId) {
+            sql.append(", ").append(id.getColonna()).append(dir);
+        }
+        sql.append(" LIMIT ?");
+
+        int limite = richiesta.getLimite();
+        List<T> elementi = new ArrayList<>();
+        String prossimoCursore = null;
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+
+            int i = 1;
+            if (cursore != null) {
+                if (!perId) {
+                    ps.setString(i++, cursore.getValore());
+                }
+                ps.setInt(i++, cursore.getId());
+            }
+            ps.setInt(i, limite + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                String ultimoValore = null;
+                int ultimoId = 0;
+                while (rs.next()) {
+                    if (elementi.size() == limite) {
+                        prossimoCursore = new Cursore(nomeChiave, desc, ultimoId, ultimoValore).encode();
+                        break;
+                    }
+                    elementi.add(mapper.map(rs));
+                    ultimoValore = rs.getString("chiave_ordinamento");
+                    ultimoId = rs.getInt("id");
+                }
+            }
+        } catch (SQLException e) {
+            if ("22P02".equals(e.getSQLState()) || "22007".equals(e.getSQLState()) || "22008".equals(e.getSQLState())) {
+                throw new ValidationException("Cursore non valido");
+            }
+            throw e;
+        }
+        return new Pagina<>(elementi, prossimoCursore, limite);
+    }
+}
@@ -1,21 +1,35 @@
 package it.turistafacoltoso.dao;
 
 import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.util.DatabaseConnection;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class PrenotazioneDAO {
 
+    private static final Map<String, ChiaveOrdinamento> ORDINAMENTI = Map.of(
+            "id", new ChiaveOrdinamento("id", "integer"),
+            "dataInizio", new ChiaveOrdinamento("data_inizio", "date"),
+            "dataFine", new ChiaveOrdinamento("data_fine", "date"),
+            "utenteId", new ChiaveOrdinamento("utente_id", "integer"),
+            "abitazioneId", new ChiaveOrdinamento("abitazione_id", "integer"));
+
     public List<Prenotazione> findAll() throws SQLException {
         List<Prenotazione> prenotazioni = new ArrayList<>();
         String sql = "SELECT * FROM prenotazione ORDER BY id";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 prenotazioni.add(mapRowToPrenotazione(rs));
@@ -24,10 +38,14 @@ public class PrenotazioneDAO {
         return prenotazioni;
     }
 
+    public Pagina<Prenotazione> findPagina(RichiestaPagina richiesta) throws SQLException {
+        return KeysetPaginator.findPagina("*", "prenotazione", ORDINAMENTI, richiesta, this::mapRowToPrenotazione);
+    }
+
     public Prenotazione findById(Integer id) throws SQLException {
         String sql = "SELECT * FROM prenotazione WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -40,10 +58,47 @@ public class PrenotazioneDAO {
         return null;
     }
 
+    public Integer findAbitazioneId(Integer id) throws SQLException {
+        String sql = "SELECT abitazione_id FROM prenotazione WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("abitazione_id") : null;
+            }
+        }
+    }
+
+    public Map<Integer, Prenotazione> findByIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Prenotazione> prenotazioni = new HashMap<>();
+        String sql = "SELECT * FROM prenotazione WHERE id = ANY(?)";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Prenotazione p = mapRowToPrenotazione(rs);
+                    prenotazioni.put(p.getId(), p);
+                }
+            }
+        }
+        return prenotazioni;
+    }
+
     public Prenotazione insert(Prenotazione prenotazione) throws SQLException {
         String sql = """
             INSERT INTO prenotazione (data_inizio, data_fine, utente_id, abitazione_id)
-            VALUES (?, ?, ?, ?) RETURNING id
+            SELECT ?, ?, ?, ?
+            WHERE NOT EXISTS (
+                SELECT 1 FROM prenotazione
+                WHERE abitazione_id = ?
+                  AND daterange(data_inizio, data_fine, '[)') && daterange(?, ?, '[)')
+            )
+            RETURNING id
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -53,21 +108,74 @@ public class PrenotazioneDAO {
             ps.setDate(2, Date.valueOf(prenotazione.getDataFine()));
             ps.setInt(3, prenotazione.getUtenteId());
             ps.setInt(4, prenotazione.getAbitazioneId());
+            ps.setInt(5, prenotazione.getAbitazioneId());
+            ps.setDate(6, Date.valueOf(prenotazione.getDataInizio()));
+            ps.setDate(7, Date.valueOf(prenotazione.getDataFine()));
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    prenotazione.setId(rs.getInt("id"));
+                if (!rs.next()) {
+                    return null;
                 }
+                prenotazione.setId(rs.getInt("id"));
             }
         }
         return prenotazione;
     }
 
-    public boolean update(Prenotazione prenotazione) throws SQLException {
+    public boolean[] insertBatch(List<Prenotazione> prenotazioni) throws SQLException {
+        String sql = """
+            INSERT INTO prenotazione (data_inizio, data_fine, utente_id, abitazione_id)
+            SELECT ?, ?, ?, ?
+            WHERE EXISTS (SELECT 1 FROM utente WHERE id = ?)
+              AND NOT EXISTS (
+                  SELECT 1 FROM prenotazione
+                  WHERE abitazione_id = ?
+                    AND daterange(data_inizio, data_fine, '[)') && daterange(?, ?, '[)')
+              )
+            """;
+        boolean[] inserite = new boolean[prenotazioni.size()];
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql, new String[] { "id" })) {
+                for (Prenotazione prenotazione : prenotazioni) {
+                    ps.setDate(1, Date.valueOf(prenotazione.getDataInizio()));
+                    ps.setDate(2, Date.valueOf(prenotazione.getDataFine()));
+                    ps.setInt(3, prenotazione.getUtenteId());
+                    ps.setInt(4, prenotazione.getAbitazioneId());
+                    ps.setInt(5, prenotazione.getUtenteId());
+                    ps.setInt(6, prenotazione.getAbitazioneId());
+                    ps.setDate(7, Date.valueOf(prenotazione.getDataInizio()));
+                    ps.setDate(8, Date.valueOf(prenotazione.getDataFine()));
+                    ps.addBatch();
+                }
+
+                int[] counts = ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] > 0 && keys.next()) {
+                            prenotazioni.get(i).setId(keys.getInt(1));
+                            inserite[i] = true;
+                        }
+                    }
+                }
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return inserite;
+    }
+
+    public Prenotazione update(Prenotazione prenotazione) throws SQLException {
         String sql = """
-            UPDATE prenotazione
+            UPDATE prenotazione p
             SET data_inizio = ?, data_fine = ?, utente_id = ?, abitazione_id = ?
-            WHERE id = ?
+            FROM (SELECT * FROM prenotazione WHERE id = ? FOR UPDATE) prima
+            WHERE p.id = prima.id
+            RETURNING prima.*
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -79,18 +187,75 @@ public class PrenotazioneDAO {
             ps.setInt(4, prenotazione.getAbitazioneId());
             ps.setInt(5, prenotazione.getId());
 
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRowToPrenotazione(rs) : null;
+            }
         }
     }
 
-    public boolean delete(Integer id) throws SQLException {
-        String sql = "DELETE FROM prenotazione WHERE id = ?";
+    public Prenotazione delete(Integer id) throws SQLException {
+        String sql = "DELETE FROM prenotazione WHERE id = ? RETURNING *";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRowToPrenotazione(rs) : null;
+            }
+        }
+    }
+
+    public List<Prenotazione> findByDataInizioDa(LocalDate da) throws SQLException {
+        List<Prenotazione> prenotazioni = new ArrayList<>();
+        String sql = "SELECT * FROM prenotazione WHERE data_inizio >= ?";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(da));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    prenotazioni.add(mapRowToPrenotazione(rs));
+                }
+            }
+        }
+        return prenotazioni;
+    }
+
+    public List<Prenotazione> findByDataInizioTra(LocalDate da, LocalDate a) throws SQLException {
+        List<Prenotazione> prenotazioni = new ArrayList<>();
+        String sql = "SELECT * FROM prenotazione WHERE data_inizio BETWEEN ? AND ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(da));
+            ps.setDate(2, Date.valueOf(a));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    prenotazioni.add(mapRowToPrenotazione(rs));
+                }
+            }
+        }
+        return prenotazioni;
+    }
+
+    public void forEach(Consumer<Prenotazione> consumer) throws SQLException {
+        String sql = "SELECT * FROM prenotazione";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setFetchSize(5000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapRowToPrenotazione(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
         }
     }
 
@@ -102,7 +267,7 @@ public class PrenotazioneDAO {
             LIMIT 1
             """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, utenteId);
@@ -115,7 +280,7 @@ public class PrenotazioneDAO {
         return null;
     }
 
-    private Prenotazione mapRowToPrenotazione(ResultSet rs) throws SQLException {
+    Prenotazione mapRowToPrenotazione(ResultSet rs) throws SQLException {
         Prenotazione p = new Prenotazione();
         p.setId(rs.getInt("id"));
         p.setDataInizio(rs.getDate("data_inizio").toLocalDate());
@@ -0,0 +1,92 @@
+package it.turistafacoltoso.dao;
+
+import java.util.List;
+import java.util.Map;
+
+public enum Tabella {
+
+    UTENTE("utente", "utenti", true,
+            List.of("id", "nome", "cognome", "email", "indirizzo"),
+            List.of("id", "email"),
+            Map.of()),
+    HOST("host", "host", false,
+            List.of("id", "codice_host"),
+            List.of("id", "codice_host"),
+            Map.of("id", "utente")),
+    ABITAZIONE("abitazione", "abitazioni", true,
+            List.of("id", "nome", "indirizzo", "locali", "posti_letto", "piano", "prezzo", "data_inizio", "data_fine", "host_id"),
+            List.of("id"),
+            Map.of("host_id", "host")),
+    PRENOTAZIONE("prenotazione", "prenotazioni", true,
+            List.of("id", "data_inizio", "data_fine", "utente_id", "abitazione_id"),
+            List.of("id"),
+            Map.of("utente_id", "utente", "abitazione_id", "abitazione")),
+    FEEDBACK("feedback", "feedback", true,
+            List.of("id", "titolo", "testo", "punteggio", "prenotazione_id"),
+            List.of("id", "prenotazione_id"),
+            Map.of("prenotazione_id", "prenotazione"));
+
+    private final String nome;
+    private final String risorsa;
+    private final boolean serial;
+    private final List<String> colonne;
+    private final List<String> colonneUniche;
+    private final Map<String, String> chiaviEsterne;
+
+    Tabella(String nome, String risorsa, boolean serial, List<String> colonne,
+            List<String> colonneUniche, Map<String, String> chiaviEsterne) {
+        this.nome = nome;
+        this.risorsa = risorsa;
+        this.serial = serial;
+        this.colonne = colonne;
+        this.colonneUniche = colonneUniche;
+        this.chiaviEsterne = chiaviEsterne;
+    }
+
+    public static Tabella fromRisorsa(String risorsa) {
+        for (Tabella t : values()) {
+            if (t.risorsa.equalsIgnoreCase(risorsa) || t.nome.equalsIgnoreCase(risorsa)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    public static String toCamelCase(String colonna) {
+        StringBuilder sb = new StringBuilder(colonna.length());
+        boolean upper = false;
+        for (char c : colonna.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                sb.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getRisorsa() {
+        return risorsa;
+    }
+
+    public boolean isSerial() {
+        return serial;
+    }
+
+    public List<String> getColonne() {
+        return colonne;
+    }
+
+    public List<String> getColonneUniche() {
+        return colonneUniche;
+    }
+
+    public Map<String, String> getChiaviEsterne() {
+        return chiaviEsterne;
+    }
+}
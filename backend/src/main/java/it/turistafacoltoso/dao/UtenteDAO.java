@@ -1,7 +1,11 @@
 package it.turistafacoltoso.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.model.Utente;
 
 public interface UtenteDAO {
@@ -10,14 +14,16 @@ public interface UtenteDAO {
 
     List<Utente> findAll();
 
+    Pagina<Utente> findPagina(RichiestaPagina richiesta);
+
     Utente findById(Integer id);
 
     Utente findByEmail(String email);
 
+    Map<Integer, Utente> findByIds(Collection<Integer> ids);
+
     boolean update(Utente utente);
 
     boolean delete(Integer id);
-
-    List<Utente> findTop5UtentiPiuGiorniUltimoMese();
 }
 
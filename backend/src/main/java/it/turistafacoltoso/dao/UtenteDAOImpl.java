@@ -4,24 +4,34 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.model.Utente;
 import it.turistafacoltoso.util.DatabaseConnection;
 
 public class UtenteDAOImpl implements UtenteDAO {
 
+    private static final Map<String, ChiaveOrdinamento> ORDINAMENTI = Map.of(
+            "id", new ChiaveOrdinamento("id", "integer"),
+            "nome", new ChiaveOrdinamento("nome", "varchar"),
+            "cognome", new ChiaveOrdinamento("cognome", "varchar"),
+            "email", new ChiaveOrdinamento("email", "varchar"));
+
     @Override
     public List<Utente> findAll() {
         List<Utente> utenti = new ArrayList<>();
         String sql = "SELECT id, nome, cognome, email, indirizzo FROM utente ORDER BY id";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 utenti.add(mapRowToUtente(rs));
@@ -32,11 +42,20 @@ public class UtenteDAOImpl implements UtenteDAO {
         return utenti;
     }
 
+    @Override
+    public Pagina<Utente> findPagina(RichiestaPagina richiesta) {
+        try {
+            return KeysetPaginator.findPagina("id, nome, cognome, email, indirizzo", "utente", ORDINAMENTI, richiesta, this::mapRowToUtente);
+        } catch (SQLException ex) {
+            throw new DataAccessException("Errore nel recupero della pagina di utenti", ex);
+        }
+    }
+
     @Override
     public Utente findById(Integer id) {
         String sql = "SELECT id, nome, cognome, email, indirizzo FROM utente WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -55,7 +74,7 @@ public class UtenteDAOImpl implements UtenteDAO {
     public Utente findByEmail(String email) {
         if (email == null || email.isBlank()) return null;
         String sql = "SELECT id, nome, cognome, email, indirizzo FROM utente WHERE email = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email.trim());
             try (ResultSet rs = ps.executeQuery()) {
@@ -67,9 +86,34 @@ public class UtenteDAOImpl implements UtenteDAO {
         return null;
     }
 
+    @Override
+    public Map<Integer, Utente> findByIds(Collection<Integer> ids) {
+        Map<Integer, Utente> utenti = new HashMap<>();
+        String sql = "SELECT id, nome, cognome, email, indirizzo FROM utente WHERE id = ANY(?)";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Utente u = mapRowToUtente(rs);
+                    utenti.put(u.getId(), u);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Errore nella ricerca utenti per id", ex);
+        }
+        return utenti;
+    }
+
     @Override
     public Utente insert(Utente utente) {
-        String sql = "INSERT INTO utente (nome, cognome, email, indirizzo) VALUES (?, ?, ?, ?) RETURNING id";
+        String sql = """
+            INSERT INTO utente (nome, cognome, email, indirizzo) VALUES (?, ?, ?, ?)
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id
+            """;
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -80,9 +124,10 @@ public class UtenteDAOImpl implements UtenteDAO {
             ps.setString(4, utente.getIndirizzo());
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    utente.setId(rs.getInt("id"));
+                if (!rs.next()) {
+                    return null;
                 }
+                utente.setId(rs.getInt("id"));
             }
         } catch (SQLException ex) {
             throw new DataAccessException("Errore nella creazione dell'utente", ex);
@@ -123,33 +168,6 @@ public class UtenteDAOImpl implements UtenteDAO {
         }
     }
 
-    @Override
-    public List<Utente> findTop5UtentiPiuGiorniUltimoMese() {
-        List<Utente> utenti = new ArrayList<>();
-        String sql = """
-            SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo,
-                   SUM(p.data_fine - p.data_inizio) AS giorni_totali
-            FROM utente u
-            JOIN prenotazione p ON u.id = p.utente_id
-            WHERE p.data_inizio >= CURRENT_DATE - INTERVAL '1 month'
-            GROUP BY u.id
-            ORDER BY giorni_totali DESC
-            LIMIT 5
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                utenti.add(mapRowToUtente(rs));
-            }
-        } catch (SQLException ex) {
-            throw new DataAccessException("Errore nel report top 5 utenti per giorni", ex);
-        }
-        return utenti;
-    }
-
     private Utente mapRowToUtente(ResultSet rs) throws SQLException {
         Utente u = new Utente();
         u.setId(rs.getInt("id"));
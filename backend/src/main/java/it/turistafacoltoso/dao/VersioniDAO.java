@@ -0,0 +1,29 @@
+package it.turistafacoltoso.dao;
+
+import it.turistafacoltoso.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public class VersioniDAO {
+
+    private static final String SQL = Arrays.stream(Tabella.values())
+            .map(t -> "SELECT " + t.ordinal() + " AS tabella, CASE WHEN is_called THEN last_value ELSE 0 END AS versione"
+                    + " FROM versione_" + t.getNome())
+            .collect(Collectors.joining(" UNION ALL "));
+
+    public long[] findVersioni() throws SQLException {
+        long[] versioni = new long[Tabella.values().length];
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                versioni[rs.getInt("tabella")] = rs.getLong("versione");
+            }
+        }
+        return versioni;
+    }
+}
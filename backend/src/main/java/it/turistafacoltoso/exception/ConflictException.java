@@ -0,0 +1,8 @@
+package it.turistafacoltoso.exception;
+
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
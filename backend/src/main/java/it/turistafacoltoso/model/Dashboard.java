@@ -0,0 +1,156 @@
+package it.turistafacoltoso.model;
+
+import java.util.List;
+
+public class Dashboard {
+
+    private long totalePrenotazioni;
+    private long totaleAbitazioni;
+    private long totaleUtenti;
+    private long totaleHost;
+    private long totaleFeedback;
+    private double feedbackMedio;
+    private List<PuntoSerie> prenotazioniPerMese;
+    private List<Prenotazione> prenotazioniRecenti;
+    private List<Feedback> feedbackRecenti;
+    private List<Abitazione> abitazioniRecenti;
+    private List<Utente> utenti;
+    private List<Abitazione> abitazioni;
+    private List<Prenotazione> prenotazioni;
+    private List<Host> host;
+
+    public Dashboard() {
+    }
+
+    public long getTotalePrenotazioni() {
+        return totalePrenotazioni;
+    }
+
+    public void setTotalePrenotazioni(long totalePrenotazioni) {
+        this.totalePrenotazioni = totalePrenotazioni;
+    }
+
+    public long getTotaleAbitazioni() {
+        return totaleAbitazioni;
+    }
+
+    public void setTotaleAbitazioni(long totaleAbitazioni) {
+        this.totaleAbitazioni = totaleAbitazioni;
+    }
+
+    public long getTotaleUtenti() {
+        return totaleUtenti;
+    }
+
+    public void setTotaleUtenti(long totaleUtenti) {
+        this.totaleUtenti = totaleUtenti;
+    }
+
+    public long getTotaleHost() {
+        return totaleHost;
+    }
+
+    public void setTotaleHost(long totaleHost) {
+        this.totaleHost = totaleHost;
+    }
+
+    public long getTotaleFeedback() {
+        return totaleFeedback;
+    }
+
+    public void setTotaleFeedback(long totaleFeedback) {
+        this.totaleFeedback = totaleFeedback;
+    }
+
+    public double getFeedbackMedio() {
+        return feedbackMedio;
+    }
+
+    public void setFeedbackMedio(double feedbackMedio) {
+        this.feedbackMedio = feedbackMedio;
+    }
+
+    public List<PuntoSerie> getPrenotazioniPerMese() {
+        return prenotazioniPerMese;
+    }
+
+    public void setPrenotazioniPerMese(List<PuntoSerie> prenotazioniPerMese) {
+        this.prenotazioniPerMese = prenotazioniPerMese;
+    }
+
+    public List<Prenotazione> getPrenotazioniRecenti() {
+        return prenotazioniRecenti;
+    }
+
+    public void setPrenotazioniRecenti(List<Prenotazione> prenotazioniRecenti) {
+        this.prenotazioniRecenti = prenotazioniRecenti;
+    }
+
+    public List<Feedback> getFeedbackRecenti() {
+        return feedbackRecenti;
+    }
+
+    public void setFeedbackRecenti(List<Feedback> feedbackRecenti) {
+        this.feedbackRecenti = feedbackRecenti;
+    }
+
+    public List<Abitazione> getAbitazioniRecenti() {
+        return abitazioniRecenti;
+    }
+
+    public void setAbitazioniRecenti(List<Abitazione> abitazioniRecenti) {
+        this.abitazioniRecenti = abitazioniRecenti;
+    }
+
+    public List<Utente> getUtenti() {
+        return utenti;
+    }
+
+    public void setUtenti(List<Utente> utenti) {
+        this.utenti = utenti;
+    }
+
+    public List<Abitazione> getAbitazioni() {
+        return abitazioni;
+    }
+
+    public void setAbitazioni(List<Abitazione> abitazioni) {
+        this.abitazioni = abitazioni;
+    }
+
+    public List<Prenotazione> getPrenotazioni() {
+        return prenotazioni;
+    }
+
+    public void setPrenotazioni(List<Prenotazione> prenotazioni) {
+        this.prenotazioni = prenotazioni;
+    }
+
+    public List<Host> getHost() {
+        return host;
+    }
+
+    public void setHost(List<Host> host) {
+        this.host = host;
+    }
+
+    @Override
+    public String toString() {
+        return "Dashboard{" +
+                "totalePrenotazioni=" + totalePrenotazioni +
+                ", totaleAbitazioni=" + totaleAbitazioni +
+                ", totaleUtenti=" + totaleUtenti +
+                ", totaleHost=" + totaleHost +
+                ", totaleFeedback=" + totaleFeedback +
+                ", feedbackMedio=" + feedbackMedio +
+                ", prenotazioniPerMese=" + prenotazioniPerMese +
+                ", prenotazioniRecenti=" + prenotazioniRecenti +
+                ", feedbackRecenti=" + feedbackRecenti +
+                ", abitazioniRecenti=" + abitazioniRecenti +
+                ", utenti=" + utenti +
+                ", abitazioni=" + abitazioni +
+                ", prenotazioni=" + prenotazioni +
+                ", host=" + host +
+                '}';
+    }
+}
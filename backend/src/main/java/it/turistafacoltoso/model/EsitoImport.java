@@ -0,0 +1,69 @@
+package it.turistafacoltoso.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EsitoImport {
+
+    private String tabella;
+    private long righe;
+    private long durataMs;
+    private List<String> errori = new ArrayList<>();
+
+    public EsitoImport() {
+    }
+
+    public EsitoImport(String tabella) {
+        this.tabella = tabella;
+    }
+
+    public boolean isValido() {
+        return errori.isEmpty();
+    }
+
+    public long getRigheAlSecondo() {
+        return durataMs > 0 ? righe * 1000 / durataMs : righe;
+    }
+
+    public String getTabella() {
+        return tabella;
+    }
+
+    public void setTabella(String tabella) {
+        this.tabella = tabella;
+    }
+
+    public long getRighe() {
+        return righe;
+    }
+
+    public void setRighe(long righe) {
+        this.righe = righe;
+    }
+
+    public long getDurataMs() {
+        return durataMs;
+    }
+
+    public void setDurataMs(long durataMs) {
+        this.durataMs = durataMs;
+    }
+
+    public List<String> getErrori() {
+        return errori;
+    }
+
+    public void setErrori(List<String> errori) {
+        this.errori = errori;
+    }
+
+    @Override
+    public String toString() {
+        return "EsitoImport{" +
+                "tabella='" + tabella + '\'' +
+                ", righe=" + righe +
+                ", durataMs=" + durataMs +
+                ", errori=" + errori +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package it.turistafacoltoso.model;
+
+public class EsitoPrenotazioneBatch {
+
+    public static final String CREATA = "CREATA";
+    public static final String SCARTATA = "SCARTATA";
+
+    private int indice;
+    private String esito;
+    private Integer id;
+    private String errore;
+
+    public EsitoPrenotazioneBatch() {
+    }
+
+    public EsitoPrenotazioneBatch(int indice) {
+        this.indice = indice;
+    }
+
+    public void creata(Integer id) {
+        this.esito = CREATA;
+        this.id = id;
+        this.errore = null;
+    }
+
+    public void scartata(String errore) {
+        this.esito = SCARTATA;
+        this.id = null;
+        this.errore = errore;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getEsito() {
+        return esito;
+    }
+
+    public void setEsito(String esito) {
+        this.esito = esito;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getErrore() {
+        return errore;
+    }
+
+    public void setErrore(String errore) {
+        this.errore = errore;
+    }
+
+    @Override
+    public String toString() {
+        return "EsitoPrenotazioneBatch{" +
+                "indice=" + indice +
+                ", esito='" + esito + '\'' +
+                ", id=" + id +
+                ", errore='" + errore + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package it.turistafacoltoso.model;
+
+public class OccupazioneAbitazione {
+
+    private Integer abitazioneId;
+    private String nome;
+    private Integer hostId;
+    private int nottiDisponibili;
+    private int nottiOccupate;
+    private double tasso;
+
+    public OccupazioneAbitazione() {
+    }
+
+    public Integer getAbitazioneId() {
+        return abitazioneId;
+    }
+
+    public void setAbitazioneId(Integer abitazioneId) {
+        this.abitazioneId = abitazioneId;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public Integer getHostId() {
+        return hostId;
+    }
+
+    public void setHostId(Integer hostId) {
+        this.hostId = hostId;
+    }
+
+    public int getNottiDisponibili() {
+        return nottiDisponibili;
+    }
+
+    public void setNottiDisponibili(int nottiDisponibili) {
+        this.nottiDisponibili = nottiDisponibili;
+    }
+
+    public int getNottiOccupate() {
+        return nottiOccupate;
+    }
+
+    public void setNottiOccupate(int nottiOccupate) {
+        this.nottiOccupate = nottiOccupate;
+    }
+
+    public double getTasso() {
+        return tasso;
+    }
+
+    public void setTasso(double tasso) {
+        this.tasso = tasso;
+    }
+
+    @Override
+    public String toString() {
+        return "OccupazioneAbitazione{" +
+                "abitazioneId=" + abitazioneId +
+                ", nome='" + nome + '\'' +
+                ", hostId=" + hostId +
+                ", nottiDisponibili=" + nottiDisponibili +
+                ", nottiOccupate=" + nottiOccupate +
+                ", tasso=" + tasso +
+                '}';
+    }
+}
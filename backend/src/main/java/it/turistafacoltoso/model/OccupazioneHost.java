@@ -0,0 +1,64 @@
+package it.turistafacoltoso.model;
+
+public class OccupazioneHost {
+
+    private Integer hostId;
+    private int abitazioni;
+    private long nottiDisponibili;
+    private long nottiOccupate;
+    private double tasso;
+
+    public OccupazioneHost() {
+    }
+
+    public Integer getHostId() {
+        return hostId;
+    }
+
+    public void setHostId(Integer hostId) {
+        this.hostId = hostId;
+    }
+
+    public int getAbitazioni() {
+        return abitazioni;
+    }
+
+    public void setAbitazioni(int abitazioni) {
+        this.abitazioni = abitazioni;
+    }
+
+    public long getNottiDisponibili() {
+        return nottiDisponibili;
+    }
+
+    public void setNottiDisponibili(long nottiDisponibili) {
+        this.nottiDisponibili = nottiDisponibili;
+    }
+
+    public long getNottiOccupate() {
+        return nottiOccupate;
+    }
+
+    public void setNottiOccupate(long nottiOccupate) {
+        this.nottiOccupate = nottiOccupate;
+    }
+
+    public double getTasso() {
+        return tasso;
+    }
+
+    public void setTasso(double tasso) {
+        this.tasso = tasso;
+    }
+
+    @Override
+    public String toString() {
+        return "OccupazioneHost{" +
+                "hostId=" + hostId +
+                ", abitazioni=" + abitazioni +
+                ", nottiDisponibili=" + nottiDisponibili +
+                ", nottiOccupate=" + nottiOccupate +
+                ", tasso=" + tasso +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package it.turistafacoltoso.model;
+
+import java.util.List;
+
+public class Pagina<T> {
+
+    private List<T> elementi;
+    private String prossimoCursore;
+    private int limite;
+
+    public Pagina() {
+    }
+
+    public Pagina(List<T> elementi, String prossimoCursore, int limite) {
+        this.elementi = elementi;
+        this.prossimoCursore = prossimoCursore;
+        this.limite = limite;
+    }
+
+    public List<T> getElementi() {
+        return elementi;
+    }
+
+    public void setElementi(List<T> elementi) {
+        this.elementi = elementi;
+    }
+
+    public String getProssimoCursore() {
+        return prossimoCursore;
+    }
+
+    public void setProssimoCursore(String prossimoCursore) {
+        this.prossimoCursore = prossimoCursore;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+
+    @Override
+    public String toString() {
+        return "Pagina{" +
+                "elementi=" + elementi +
+                ", prossimoCursore='" + prossimoCursore + '\'' +
+                ", limite=" + limite +
+                '}';
+    }
+}
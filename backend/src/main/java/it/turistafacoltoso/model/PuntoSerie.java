@@ -0,0 +1,39 @@
+package it.turistafacoltoso.model;
+
+public class PuntoSerie {
+
+    private String etichetta;
+    private long valore;
+
+    public PuntoSerie() {
+    }
+
+    public PuntoSerie(String etichetta, long valore) {
+        this.etichetta = etichetta;
+        this.valore = valore;
+    }
+
+    public String getEtichetta() {
+        return etichetta;
+    }
+
+    public void setEtichetta(String etichetta) {
+        this.etichetta = etichetta;
+    }
+
+    public long getValore() {
+        return valore;
+    }
+
+    public void setValore(long valore) {
+        this.valore = valore;
+    }
+
+    @Override
+    public String toString() {
+        return "PuntoSerie{" +
+                "etichetta='" + etichetta + '\'' +
+                ", valore=" + valore +
+                '}';
+    }
+}
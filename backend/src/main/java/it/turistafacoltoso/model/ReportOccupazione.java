@@ -0,0 +1,87 @@
+package it.turistafacoltoso.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class ReportOccupazione {
+
+    private LocalDate from;
+    private LocalDate to;
+    private long nottiDisponibili;
+    private long nottiOccupate;
+    private double tasso;
+    private List<OccupazioneAbitazione> abitazioni;
+    private List<OccupazioneHost> host;
+
+    public ReportOccupazione() {
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public long getNottiDisponibili() {
+        return nottiDisponibili;
+    }
+
+    public void setNottiDisponibili(long nottiDisponibili) {
+        this.nottiDisponibili = nottiDisponibili;
+    }
+
+    public long getNottiOccupate() {
+        return nottiOccupate;
+    }
+
+    public void setNottiOccupate(long nottiOccupate) {
+        this.nottiOccupate = nottiOccupate;
+    }
+
+    public double getTasso() {
+        return tasso;
+    }
+
+    public void setTasso(double tasso) {
+        this.tasso = tasso;
+    }
+
+    public List<OccupazioneAbitazione> getAbitazioni() {
+        return abitazioni;
+    }
+
+    public void setAbitazioni(List<OccupazioneAbitazione> abitazioni) {
+        this.abitazioni = abitazioni;
+    }
+
+    public List<OccupazioneHost> getHost() {
+        return host;
+    }
+
+    public void setHost(List<OccupazioneHost> host) {
+        this.host = host;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportOccupazione{" +
+                "from=" + from +
+                ", to=" + to +
+                ", nottiDisponibili=" + nottiDisponibili +
+                ", nottiOccupate=" + nottiOccupate +
+                ", tasso=" + tasso +
+                ", abitazioni=" + abitazioni +
+                ", host=" + host +
+                '}';
+    }
+}
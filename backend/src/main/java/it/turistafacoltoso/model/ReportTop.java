@@ -0,0 +1,127 @@
+package it.turistafacoltoso.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class ReportTop {
+
+    private String entita;
+    private int finestra;
+    private String citta;
+    private LocalDate dal;
+    private LocalDate al;
+    private int k;
+    private int capacita;
+    private long totalePrenotazioni;
+    private long limiteErrore;
+    private boolean esatto;
+    private List<VoceTop> voci;
+
+    public ReportTop() {
+    }
+
+    public String getEntita() {
+        return entita;
+    }
+
+    public void setEntita(String entita) {
+        this.entita = entita;
+    }
+
+    public int getFinestra() {
+        return finestra;
+    }
+
+    public void setFinestra(int finestra) {
+        this.finestra = finestra;
+    }
+
+    public String getCitta() {
+        return citta;
+    }
+
+    public void setCitta(String citta) {
+        this.citta = citta;
+    }
+
+    public LocalDate getDal() {
+        return dal;
+    }
+
+    public void setDal(LocalDate dal) {
+        this.dal = dal;
+    }
+
+    public LocalDate getAl() {
+        return al;
+    }
+
+    public void setAl(LocalDate al) {
+        this.al = al;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public void setK(int k) {
+        this.k = k;
+    }
+
+    public int getCapacita() {
+        return capacita;
+    }
+
+    public void setCapacita(int capacita) {
+        this.capacita = capacita;
+    }
+
+    public long getTotalePrenotazioni() {
+        return totalePrenotazioni;
+    }
+
+    public void setTotalePrenotazioni(long totalePrenotazioni) {
+        this.totalePrenotazioni = totalePrenotazioni;
+    }
+
+    public long getLimiteErrore() {
+        return limiteErrore;
+    }
+
+    public void setLimiteErrore(long limiteErrore) {
+        this.limiteErrore = limiteErrore;
+    }
+
+    public boolean isEsatto() {
+        return esatto;
+    }
+
+    public void setEsatto(boolean esatto) {
+        this.esatto = esatto;
+    }
+
+    public List<VoceTop> getVoci() {
+        return voci;
+    }
+
+    public void setVoci(List<VoceTop> voci) {
+        this.voci = voci;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportTop{" +
+                "entita='" + entita + '\'' +
+                ", finestra=" + finestra +
+                ", citta='" + citta + '\'' +
+                ", dal=" + dal +
+                ", al=" + al +
+                ", k=" + k +
+                ", capacita=" + capacita +
+                ", totalePrenotazioni=" + totalePrenotazioni +
+                ", limiteErrore=" + limiteErrore +
+                ", esatto=" + esatto +
+                ", voci=" + voci +
+                '}';
+    }
+}
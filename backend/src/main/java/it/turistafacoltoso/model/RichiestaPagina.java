@@ -0,0 +1,53 @@
+package it.turistafacoltoso.model;
+
+public class RichiestaPagina {
+
+    public static final int LIMITE_PREDEFINITO = 50;
+    public static final int LIMITE_MASSIMO = 500;
+
+    private String after;
+    private String sort;
+    private int limite = LIMITE_PREDEFINITO;
+
+    public RichiestaPagina() {
+    }
+
+    public RichiestaPagina(String after, String sort, int limite) {
+        this.after = after;
+        this.sort = sort;
+        this.limite = limite;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+
+    @Override
+    public String toString() {
+        return "RichiestaPagina{" +
+                "after='" + after + '\'' +
+                ", sort='" + sort + '\'' +
+                ", limite=" + limite +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package it.turistafacoltoso.model;
+
+public class VoceTop {
+
+    private Integer id;
+    private String nome;
+    private long stima;
+    private long errore;
+    private long minimo;
+    private boolean garantita;
+
+    public VoceTop() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public long getStima() {
+        return stima;
+    }
+
+    public void setStima(long stima) {
+        this.stima = stima;
+    }
+
+    public long getErrore() {
+        return errore;
+    }
+
+    public void setErrore(long errore) {
+        this.errore = errore;
+    }
+
+    public long getMinimo() {
+        return minimo;
+    }
+
+    public void setMinimo(long minimo) {
+        this.minimo = minimo;
+    }
+
+    public boolean isGarantita() {
+        return garantita;
+    }
+
+    public void setGarantita(boolean garantita) {
+        this.garantita = garantita;
+    }
+
+    @Override
+    public String toString() {
+        return "VoceTop{" +
+                "id=" + id +
+                ", nome='" + nome + '\'' +
+                ", stima=" + stima +
+                ", errore=" + errore +
+                ", minimo=" + minimo +
+                ", garantita=" + garantita +
+                '}';
+    }
+}
@@ -1,34 +1,68 @@
 package it.turistafacoltoso.service;
 
 import it.turistafacoltoso.dao.AbitazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.exception.DataAccessException;
 import it.turistafacoltoso.exception.NotFoundException;
+import it.turistafacoltoso.exception.ValidationException;
 import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.ReportOccupazione;
+import it.turistafacoltoso.model.RichiestaPagina;
+import it.turistafacoltoso.service.ReportCache.Report;
+import it.turistafacoltoso.util.SqlStateUtil;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class AbitazioneService {
 
     private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final ReportCache reportCache = ReportCache.getInstance();
 
     public List<Abitazione> findAll() {
+        return SingleFlight.esegui("abitazione.findAll", () -> {
+            try {
+                return abitazioneDAO.findAll();
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore lettura abitazioni", e);
+            }
+        }, Tabella.ABITAZIONE);
+    }
+
+    public Pagina<Abitazione> findPagina(RichiestaPagina richiesta) {
         try {
-            return abitazioneDAO.findAll();
+            return abitazioneDAO.findPagina(richiesta);
         } catch (SQLException e) {
-            throw new DataAccessException("Errore lettura abitazioni", e);
+            throw new DataAccessException("Errore lettura pagina abitazioni", e);
         }
     }
 
     public Abitazione findById(Integer id) {
+        return CacheEntita.ABITAZIONI.get(id, chiave -> {
+            try {
+                return abitazioneDAO.findById(chiave);
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore ricerca abitazione", e);
+            }
+        });
+    }
+
+    public Map<Integer, Abitazione> findByIds(Collection<Integer> ids) {
         try {
-            return abitazioneDAO.findById(id);
+            return abitazioneDAO.findByIds(ids);
         } catch (SQLException e) {
-            throw new DataAccessException("Errore ricerca abitazione", e);
+            throw new DataAccessException("Errore ricerca abitazioni", e);
         }
     }
 
     public List<Abitazione> findByCodiceHost(String codiceHost) {
+        if (!FiltroCodiciHost.getInstance().puoEsistere(codiceHost)) {
+            return List.of();
+        }
         try {
             return abitazioneDAO.findByCodiceHost(codiceHost);
         } catch (SQLException e) {
@@ -38,50 +72,91 @@ public class AbitazioneService {
 
     public Abitazione create(Abitazione abitazione) {
         try {
-            return abitazioneDAO.insert(abitazione);
+            Abitazione created = abitazioneDAO.insert(abitazione);
+            EventiDominio.notifica(l -> l.abitazioneCreata(created));
+            VersioniTabelle.incrementa(Tabella.ABITAZIONE);
+            return created;
         } catch (SQLException e) {
-            throw new DataAccessException("Errore creazione abitazione", e);
+            throw erroreScrittura(e, "Errore creazione abitazione");
         }
     }
 
     public Abitazione update(Integer id, Abitazione abitazione) {
         abitazione.setId(id);
         try {
-            if (abitazioneDAO.findById(id) == null) {
-                throw new NotFoundException("Abitazione non trovata");
+            Abitazione prima = abitazioneDAO.update(abitazione);
+            if (prima != null) {
+                CacheEntita.ABITAZIONI.invalidate(id);
+                EventiDominio.notifica(l -> l.abitazioneAggiornata(prima, abitazione));
+                VersioniTabelle.incrementa(Tabella.ABITAZIONE);
+                return abitazione;
             }
-            boolean ok = abitazioneDAO.update(abitazione);
-            if (ok) return abitazione;
         } catch (SQLException e) {
-            throw new DataAccessException("Errore aggiornamento abitazione", e);
+            throw erroreScrittura(e, "Errore aggiornamento abitazione");
         }
         throw new NotFoundException("Abitazione non trovata");
     }
 
     public boolean delete(Integer id) {
         try {
-            if (abitazioneDAO.findById(id) == null) {
-                throw new NotFoundException("Abitazione non trovata");
+            Abitazione eliminata = abitazioneDAO.delete(id);
+            if (eliminata == null) {
+                return false;
             }
-            return abitazioneDAO.delete(id);
+            CacheEntita.ABITAZIONI.invalidate(id);
+            EventiDominio.notifica(l -> l.abitazioneEliminata(eliminata));
+            VersioniTabelle.incrementa(Tabella.ABITAZIONE);
+            return true;
         } catch (SQLException e) {
+            if (SqlStateUtil.isForeignKeyViolation(e)) {
+                throw new ValidationException("Impossibile eliminare l'abitazione: esistono prenotazioni collegate.");
+            }
             throw new DataAccessException("Errore eliminazione abitazione", e);
         }
     }
 
+    private RuntimeException erroreScrittura(SQLException e, String messaggio) {
+        if (SqlStateUtil.isForeignKeyViolation(e)) {
+            return new ValidationException("Host non trovato");
+        }
+        return new DataAccessException(messaggio, e);
+    }
+
+    public List<Abitazione> findDisponibili(LocalDate dal, LocalDate al, Integer postiLetto) {
+        if (dal == null || al == null) {
+            throw new ValidationException("I parametri dal e al sono obbligatori.");
+        }
+        if (!al.isAfter(dal)) {
+            throw new ValidationException("La data al deve essere successiva alla data dal.");
+        }
+        return IndiceDisponibilita.getInstance().cerca(dal, al, postiLetto != null ? postiLetto : 0);
+    }
+
+    public ReportOccupazione getOccupazione(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new ValidationException("I parametri from e to sono obbligatori.");
+        }
+        if (!to.isAfter(from)) {
+            throw new ValidationException("La data to deve essere successiva alla data from.");
+        }
+        return SingleFlight.esegui("abitazione.occupazione", from + ".." + to,
+                () -> IndiceOccupazione.getInstance().report(from, to), Tabella.ABITAZIONE, Tabella.PRENOTAZIONE);
+    }
+
     public Abitazione findPiuGettonataUltimoMese() {
-        try {
-            return abitazioneDAO.findPiuGettonataUltimoMese();
-        } catch (SQLException e) {
-            throw new DataAccessException("Errore report abitazione gettonata", e);
+        return reportCache.get(Report.ABITAZIONE_GETTONATA, () -> SingleFlight.esegui("abitazione.piuGettonataMese",
+                this::caricaPiuGettonataUltimoMese, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE));
+    }
+
+    private Abitazione caricaPiuGettonataUltimoMese() {
+        Integer id = FinestraUltimoMese.getInstance().getAbitazionePiuGettonata();
+        if (id == null) {
+            return null;
         }
+        return findById(id);
     }
 
     public Double getMediaPostiLetto() {
-        try {
-            return abitazioneDAO.getMediaPostiLetto();
-        } catch (SQLException e) {
-            throw new DataAccessException("Errore report media posti letto", e);
-        }
+        return AggregatiPrenotazioni.getInstance().getMediaPostiLetto();
     }
 }
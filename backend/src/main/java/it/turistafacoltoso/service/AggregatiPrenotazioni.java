@@ -0,0 +1,271 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.AbitazioneDAO;
+import it.turistafacoltoso.dao.PrenotazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Prenotazione;
+
+public class AggregatiPrenotazioni implements DominioListener {
+
+    public static final int SOGLIA_SUPER_HOST = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(AggregatiPrenotazioni.class);
+
+    private static final AggregatiPrenotazioni INSTANCE = new AggregatiPrenotazioni();
+
+    private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
+
+    private final Object ricarica = new Object();
+    private List<Runnable> eventiDuranteCarica;
+    private volatile Stato stato = new Stato();
+
+    private AggregatiPrenotazioni() {
+    }
+
+    public static AggregatiPrenotazioni getInstance() {
+        return INSTANCE;
+    }
+
+    public void carica() {
+        synchronized (ricarica) {
+            synchronized (this) {
+                eventiDuranteCarica = new ArrayList<>();
+            }
+            try {
+                ricarica();
+            } finally {
+                synchronized (this) {
+                    eventiDuranteCarica = null;
+                }
+            }
+        }
+    }
+
+    private void ricarica() {
+        long start = System.currentTimeMillis();
+        Stato nuovo = new Stato();
+        try {
+            abitazioneDAO.findAll().forEach(nuovo::aggiungiAbitazione);
+            prenotazioneDAO.forEach(nuovo::metti);
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore caricamento aggregati prenotazioni", e);
+        }
+
+        int rieseguiti;
+        synchronized (this) {
+            stato = nuovo;
+            eventiDuranteCarica.forEach(Runnable::run);
+            rieseguiti = eventiDuranteCarica.size();
+        }
+        log.info("Aggregati prenotazioni caricati: {} abitazioni, {} super-host, {} eventi rieseguiti in {} ms",
+                nuovo.media.numero, nuovo.superHost.size(), rieseguiti, System.currentTimeMillis() - start);
+    }
+
+    public List<Integer> getSuperHostIds() {
+        return new ArrayList<>(stato.superHost);
+    }
+
+    public Double getMediaPostiLetto() {
+        Media m = stato.media;
+        return m.numero == 0 ? 0.0 : (double) m.somma / m.numero;
+    }
+
+    public synchronized long getTotalePrenotazioni() {
+        return stato.totalePrenotazioni;
+    }
+
+    public int getTotaleAbitazioni() {
+        return stato.media.numero;
+    }
+
+    public synchronized Map<YearMonth, Integer> getPrenotazioniPerMese(YearMonth da, YearMonth a) {
+        Map<YearMonth, Integer> mesi = new TreeMap<>();
+        for (YearMonth mese = da; !mese.isAfter(a); mese = mese.plusMonths(1)) {
+            mesi.put(mese, stato.perMese.getOrDefault(mese, 0));
+        }
+        return mesi;
+    }
+
+    @Override
+    public void prenotazioneCreata(Prenotazione prenotazione) {
+        applica(() -> stato.metti(prenotazione));
+    }
+
+    @Override
+    public void prenotazioneAggiornata(Prenotazione prima, Prenotazione dopo) {
+        applica(() -> stato.metti(dopo));
+    }
+
+    @Override
+    public void prenotazioneEliminata(Prenotazione prenotazione) {
+        applica(() -> stato.togli(prenotazione.getId()));
+    }
+
+    @Override
+    public void abitazioneCreata(Abitazione abitazione) {
+        applica(() -> stato.aggiungiAbitazione(abitazione));
+    }
+
+    @Override
+    public void abitazioneAggiornata(Abitazione prima, Abitazione dopo) {
+        applica(() -> stato.aggiungiAbitazione(dopo));
+    }
+
+    @Override
+    public void abitazioneEliminata(Abitazione abitazione) {
+        applica(() -> stato.rimuoviAbitazione(abitazione.getId()));
+    }
+
+    @Override
+    public void utenteEliminato(Integer id) {
+        applica(() -> stato.rimuoviHost(id));
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        if (tabella == Tabella.ABITAZIONE || tabella == Tabella.PRENOTAZIONE) {
+            carica();
+        }
+    }
+
+    private synchronized void applica(Runnable evento) {
+        evento.run();
+        if (eventiDuranteCarica != null) {
+            eventiDuranteCarica.add(evento);
+        }
+    }
+
+    // Ogni prenotazione è ricordata per id (abitazione e mese), così ogni evento sostituisce lo stato della
+    // prenotazione invece di applicare un delta e si può rieseguire sopra un caricamento che lo include già.
+    private static final class Stato {
+
+        private final Map<Integer, Abitazione> abitazioni = new HashMap<>();
+        private final Map<Integer, Integer> perAbitazione = new HashMap<>();
+        private final Map<Integer, Integer> perHost = new HashMap<>();
+        private final Map<YearMonth, Integer> perMese = new TreeMap<>();
+        private final NavigableSet<Integer> superHost = new ConcurrentSkipListSet<>();
+        private int[] abitazionePerPrenotazione = new int[1024];
+        private int[] mesePerPrenotazione = new int[1024];
+        private long totalePrenotazioni;
+        private volatile Media media = new Media(0, 0);
+
+        private void metti(Prenotazione prenotazione) {
+            int id = prenotazione.getId();
+            togli(id);
+            if (id >= mesePerPrenotazione.length) {
+                int lunghezza = Math.max(id + 1, mesePerPrenotazione.length * 2);
+                abitazionePerPrenotazione = Arrays.copyOf(abitazionePerPrenotazione, lunghezza);
+                mesePerPrenotazione = Arrays.copyOf(mesePerPrenotazione, lunghezza);
+            }
+            YearMonth mese = YearMonth.from(prenotazione.getDataInizio());
+            abitazionePerPrenotazione[id] = prenotazione.getAbitazioneId();
+            mesePerPrenotazione[id] = mese.getYear() * 12 + mese.getMonthValue();
+            contaMese(mese, 1);
+            conta(prenotazione.getAbitazioneId(), 1);
+        }
+
+        private void togli(int id) {
+            if (id >= mesePerPrenotazione.length || mesePerPrenotazione[id] == 0) {
+                return;
+            }
+            int mese = mesePerPrenotazione[id] - 1;
+            contaMese(YearMonth.of(mese / 12, mese % 12 + 1), -1);
+            conta(abitazionePerPrenotazione[id], -1);
+            abitazionePerPrenotazione[id] = 0;
+            mesePerPrenotazione[id] = 0;
+        }
+
+        private void aggiungiAbitazione(Abitazione abitazione) {
+            Abitazione vecchia = abitazioni.put(abitazione.getId(), abitazione);
+            if (vecchia == null) {
+                media = media.piu(abitazione.getPostiLetto(), 1);
+                return;
+            }
+            media = media.piu(abitazione.getPostiLetto() - vecchia.getPostiLetto(), 0);
+            if (!vecchia.getHostId().equals(abitazione.getHostId())) {
+                int totale = perAbitazione.getOrDefault(abitazione.getId(), 0);
+                aggiungiAHost(vecchia.getHostId(), -totale);
+                aggiungiAHost(abitazione.getHostId(), totale);
+            }
+        }
+
+        private void rimuoviAbitazione(Integer abitazioneId) {
+            Abitazione a = abitazioni.remove(abitazioneId);
+            if (a == null) {
+                return;
+            }
+            media = media.piu(-a.getPostiLetto(), -1);
+            Integer totale = perAbitazione.remove(abitazioneId);
+            if (totale != null) {
+                aggiungiAHost(a.getHostId(), -totale);
+            }
+        }
+
+        private void rimuoviHost(Integer hostId) {
+            List<Integer> daRimuovere = new ArrayList<>();
+            for (Abitazione a : abitazioni.values()) {
+                if (a.getHostId().equals(hostId)) {
+                    daRimuovere.add(a.getId());
+                }
+            }
+            daRimuovere.forEach(this::rimuoviAbitazione);
+            perHost.remove(hostId);
+            superHost.remove(hostId);
+        }
+
+        private void conta(Integer abitazioneId, int delta) {
+            Abitazione a = abitazioni.get(abitazioneId);
+            if (a == null) {
+                return;
+            }
+            perAbitazione.merge(abitazioneId, delta, (x, y) -> x + y == 0 ? null : x + y);
+            aggiungiAHost(a.getHostId(), delta);
+        }
+
+        private void contaMese(YearMonth mese, int delta) {
+            perMese.merge(mese, delta, (x, y) -> x + y == 0 ? null : x + y);
+            totalePrenotazioni += delta;
+        }
+
+        private void aggiungiAHost(Integer hostId, int delta) {
+            Integer totale = perHost.merge(hostId, delta, (x, y) -> x + y == 0 ? null : x + y);
+            if (totale != null && totale >= SOGLIA_SUPER_HOST) {
+                superHost.add(hostId);
+            } else {
+                superHost.remove(hostId);
+            }
+        }
+    }
+
+    private static final class Media {
+
+        private final long somma;
+        private final int numero;
+
+        private Media(long somma, int numero) {
+            this.somma = somma;
+            this.numero = numero;
+        }
+
+        private Media piu(long deltaSomma, int deltaNumero) {
+            return new Media(somma + deltaSomma, numero + deltaNumero);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package it.turistafacoltoso.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Feedback;
+import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.Utente;
+import it.turistafacoltoso.util.AppConfig;
+import it.turistafacoltoso.util.TinyLfuCache;
+
+public final class CacheEntita {
+
+    private static final boolean enabled = AppConfig.getBoolean("cache.entita.enabled", true);
+
+    private static final Map<String, TinyLfuCache<?, ?>> cache = new LinkedHashMap<>();
+
+    static final TinyLfuCache<Integer, Utente> UTENTI = crea("utente", 10_000, CacheEntita::copia);
+    static final TinyLfuCache<Integer, Host> HOST = crea("host", 2_000, CacheEntita::copia);
+    static final TinyLfuCache<String, Host> HOST_PER_CODICE = crea("host-codice", 2_000, CacheEntita::copia);
+    static final TinyLfuCache<Integer, Abitazione> ABITAZIONI = crea("abitazione", 10_000, CacheEntita::copia);
+    static final TinyLfuCache<Integer, Prenotazione> PRENOTAZIONI = crea("prenotazione", 10_000, CacheEntita::copia);
+    static final TinyLfuCache<Integer, Feedback> FEEDBACK = crea("feedback", 5_000, CacheEntita::copia);
+
+    private CacheEntita() {}
+
+    private static <K, V> TinyLfuCache<K, V> crea(String nome, int maxSizePredefinito, UnaryOperator<V> copia) {
+        int maxSize = enabled ? AppConfig.getInt("cache.entita." + nome + ".maxSize", maxSizePredefinito) : 0;
+        TinyLfuCache<K, V> c = new TinyLfuCache<>(maxSize, copia);
+        cache.put(nome, c);
+        return c;
+    }
+
+    private static Utente copia(Utente u) {
+        return new Utente(u.getId(), u.getNome(), u.getCognome(), u.getEmail(), u.getIndirizzo());
+    }
+
+    private static Host copia(Host h) {
+        return new Host(h.getId(), h.getNome(), h.getCognome(), h.getEmail(), h.getIndirizzo(), h.getCodiceHost());
+    }
+
+    private static Abitazione copia(Abitazione a) {
+        return new Abitazione(a.getId(), a.getNome(), a.getIndirizzo(), a.getLocali(), a.getPostiLetto(),
+                a.getPiano(), a.getPrezzo(), a.getDataInizio(), a.getDataFine(), a.getHostId());
+    }
+
+    private static Prenotazione copia(Prenotazione p) {
+        return new Prenotazione(p.getId(), p.getDataInizio(), p.getDataFine(), p.getUtenteId(), p.getAbitazioneId());
+    }
+
+    private static Feedback copia(Feedback f) {
+        return new Feedback(f.getId(), f.getTitolo(), f.getTesto(), f.getPunteggio(), f.getPrenotazioneId());
+    }
+
+    static void invalidaUtente(Integer id) {
+        UTENTI.invalidate(id);
+        HOST.invalidate(id);
+        HOST_PER_CODICE.invalidateIf(h -> h.getId().equals(id));
+    }
+
+    static void utenteEliminato(Integer id) {
+        invalidaUtente(id);
+        ABITAZIONI.invalidateIf(a -> a.getHostId().equals(id));
+    }
+
+    static void invalida(Tabella tabella) {
+        switch (tabella) {
+            case UTENTE -> {
+                UTENTI.invalidateAll();
+                HOST.invalidateAll();
+                HOST_PER_CODICE.invalidateAll();
+            }
+            case HOST -> {
+                HOST.invalidateAll();
+                HOST_PER_CODICE.invalidateAll();
+            }
+            case ABITAZIONE -> ABITAZIONI.invalidateAll();
+            case PRENOTAZIONE -> PRENOTAZIONI.invalidateAll();
+            case FEEDBACK -> FEEDBACK.invalidateAll();
+        }
+    }
+
+    public static Map<String, Object> getStatistiche() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        cache.forEach((nome, c) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("maxSize", c.getMaximumSize());
+            m.put("voci", c.getSize());
+            m.put("hit", c.getHits());
+            m.put("miss", c.getMisses());
+            m.put("evictions", c.getEvictions());
+            long totale = c.getHits() + c.getMisses();
+            m.put("hitRatio", totale == 0 ? 0.0 : (double) c.getHits() / totale);
+            result.put(nome, m);
+        });
+        return result;
+    }
+}
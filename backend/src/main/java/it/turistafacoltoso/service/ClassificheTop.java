@@ -0,0 +1,407 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.AbitazioneDAO;
+import it.turistafacoltoso.dao.PrenotazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.ReportTop;
+import it.turistafacoltoso.model.VoceTop;
+import it.turistafacoltoso.util.AppConfig;
+import it.turistafacoltoso.util.SpaceSaving;
+
+public class ClassificheTop implements DominioListener {
+
+    public static final int FINESTRA_MASSIMA = 90;
+
+    public enum Entita {
+        ABITAZIONE("abitazione"),
+        HOST("host");
+
+        private final String nome;
+
+        Entita(String nome) {
+            this.nome = nome;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public static Entita daNome(String nome) {
+            for (Entita e : values()) {
+                if (e.nome.equalsIgnoreCase(nome)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ClassificheTop.class);
+
+    private static final ClassificheTop INSTANCE = new ClassificheTop();
+
+    private static final String TUTTE = "";
+
+    private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
+
+    private final int capacita = AppConfig.getInt("report.top.capacita", 256);
+    private final Giorno[] anello = new Giorno[FINESTRA_MASSIMA];
+    private final long[] invalidatoIl = new long[FINESTRA_MASSIMA];
+    private final Map<Integer, Info> abitazioni = new HashMap<>();
+    // Prenotazioni create per giorni non ancora ricostruiti: rieseguite quando il giorno torna valido.
+    private final Map<Integer, Map<Integer, Prenotazione>> inSospeso = new HashMap<>();
+    private final Object ricarica = new Object();
+    private long generazione;
+    private int oggi;
+
+    private ClassificheTop() {
+    }
+
+    public static ClassificheTop getInstance() {
+        return INSTANCE;
+    }
+
+    public int getCapacita() {
+        return capacita;
+    }
+
+    public void carica() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            List<Abitazione> tutte;
+            try {
+                tutte = abitazioneDAO.findAll();
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore caricamento classifiche top", e);
+            }
+            abitazioni.clear();
+            for (Abitazione a : tutte) {
+                abitazioni.put(a.getId(), new Info(a));
+            }
+            invalidaTutto();
+        }
+        ricostruisci(FINESTRA_MASSIMA);
+        log.info("Classifiche top caricate: {} giorni, capacità {} in {} ms",
+                FINESTRA_MASSIMA, capacita, System.currentTimeMillis() - start);
+    }
+
+    public ReportTop classifica(Entita entita, int finestra, String citta, int k) {
+        while (true) {
+            synchronized (this) {
+                avanza();
+                if (validi(oggi - finestra + 1, oggi)) {
+                    return componi(entita, finestra, citta, k);
+                }
+            }
+            ricostruisci(finestra);
+        }
+    }
+
+    private ReportTop componi(Entita entita, int finestra, String citta, int k) {
+        int dal = oggi - finestra + 1;
+        String scope = citta == null ? TUTTE : normalizza(citta);
+        List<SpaceSaving> sketches = new ArrayList<>();
+        for (int giorno = dal; giorno <= oggi; giorno++) {
+            SpaceSaving sketch = anello[slot(giorno)].sketch(entita, scope);
+            if (sketch != null) {
+                sketches.add(sketch);
+            }
+        }
+        SpaceSaving unione = SpaceSaving.merge(sketches, capacita);
+        List<SpaceSaving.Estimate> stime = unione.top(k + 1);
+        long soglia = unione.getFloor();
+        if (stime.size() > k) {
+            soglia = Math.max(soglia, stime.remove(k).getCount());
+        }
+
+        List<VoceTop> voci = new ArrayList<>();
+        boolean esatto = unione.getFloor() == 0;
+        for (SpaceSaving.Estimate stima : stime) {
+            VoceTop voce = new VoceTop();
+            voce.setId(stima.getItem());
+            if (entita == Entita.ABITAZIONE && abitazioni.containsKey(stima.getItem())) {
+                voce.setNome(abitazioni.get(stima.getItem()).nome);
+            }
+            voce.setStima(stima.getCount());
+            voce.setErrore(stima.getError());
+            voce.setMinimo(stima.getLowerBound());
+            voce.setGarantita(stima.getLowerBound() >= soglia);
+            esatto &= stima.getError() == 0;
+            voci.add(voce);
+        }
+
+        ReportTop report = new ReportTop();
+        report.setEntita(entita.getNome());
+        report.setFinestra(finestra);
+        report.setCitta(citta);
+        report.setDal(LocalDate.ofEpochDay(dal));
+        report.setAl(LocalDate.ofEpochDay(oggi));
+        report.setK(k);
+        report.setCapacita(capacita);
+        report.setTotalePrenotazioni(unione.getTotal());
+        report.setLimiteErrore(unione.getFloor());
+        report.setEsatto(esatto);
+        report.setVoci(voci);
+        return report;
+    }
+
+    @Override
+    public synchronized void prenotazioneCreata(Prenotazione prenotazione) {
+        avanza();
+        int giorno = giorno(prenotazione.getDataInizio());
+        Giorno g = valido(giorno);
+        if (g != null) {
+            conta(g, prenotazione);
+        } else if (nellaFinestra(giorno)) {
+            inSospeso.computeIfAbsent(giorno, d -> new HashMap<>()).put(prenotazione.getId(), prenotazione);
+        }
+    }
+
+    @Override
+    public synchronized void prenotazioneAggiornata(Prenotazione prima, Prenotazione dopo) {
+        togliInSospeso(prima);
+        invalida(giorno(prima.getDataInizio()));
+        invalida(giorno(dopo.getDataInizio()));
+    }
+
+    @Override
+    public synchronized void prenotazioneEliminata(Prenotazione prenotazione) {
+        togliInSospeso(prenotazione);
+        invalida(giorno(prenotazione.getDataInizio()));
+    }
+
+    @Override
+    public synchronized void abitazioneCreata(Abitazione abitazione) {
+        abitazioni.put(abitazione.getId(), new Info(abitazione));
+    }
+
+    @Override
+    public synchronized void abitazioneAggiornata(Abitazione prima, Abitazione dopo) {
+        Info vecchia = abitazioni.put(dopo.getId(), new Info(dopo));
+        Info nuova = abitazioni.get(dopo.getId());
+        if (vecchia == null || !vecchia.hostId.equals(nuova.hostId) || !vecchia.citta.equals(nuova.citta)) {
+            invalidaTutto();
+        }
+    }
+
+    @Override
+    public synchronized void abitazioneEliminata(Abitazione abitazione) {
+        abitazioni.remove(abitazione.getId());
+    }
+
+    @Override
+    public synchronized void utenteEliminato(Integer id) {
+        abitazioni.values().removeIf(info -> info.hostId.equals(id));
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        if (tabella == Tabella.ABITAZIONE || tabella == Tabella.PRENOTAZIONE) {
+            carica();
+        }
+    }
+
+    private void avanza() {
+        int adesso = giorno(LocalDate.now());
+        if (adesso != oggi) {
+            oggi = adesso;
+            inSospeso.keySet().removeIf(giorno -> !nellaFinestra(giorno));
+        }
+    }
+
+    private boolean nellaFinestra(int giorno) {
+        return giorno > oggi - FINESTRA_MASSIMA && giorno <= oggi;
+    }
+
+    private boolean validi(int dal, int al) {
+        for (int giorno = dal; giorno <= al; giorno++) {
+            if (valido(giorno) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // La lettura avviene fuori dal monitor, così le notifiche delle prenotazioni non la aspettano. Un giorno
+    // invalidato durante la lettura resta invalido e viene riletto al giro successivo; le prenotazioni create
+    // nel frattempo sono in sospeso e si rieseguono saltando quelle già lette.
+    private void ricostruisci(int finestra) {
+        synchronized (ricarica) {
+            int primo;
+            int ultimo;
+            long generazioneLetta;
+            synchronized (this) {
+                avanza();
+                primo = Integer.MAX_VALUE;
+                ultimo = Integer.MIN_VALUE;
+                for (int giorno = oggi - finestra + 1; giorno <= oggi; giorno++) {
+                    if (valido(giorno) == null) {
+                        primo = Math.min(primo, giorno);
+                        ultimo = Math.max(ultimo, giorno);
+                    }
+                }
+                if (primo > ultimo) {
+                    return;
+                }
+                generazioneLetta = generazione;
+            }
+
+            List<Prenotazione> prenotazioni;
+            try {
+                prenotazioni = prenotazioneDAO.findByDataInizioTra(LocalDate.ofEpochDay(primo), LocalDate.ofEpochDay(ultimo));
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore ricostruzione classifiche top", e);
+            }
+
+            synchronized (this) {
+                avanza();
+                Map<Integer, Giorno> nuovi = new HashMap<>();
+                for (int giorno = primo; giorno <= ultimo; giorno++) {
+                    if (nellaFinestra(giorno) && valido(giorno) == null && invalidatoIl[slot(giorno)] <= generazioneLetta) {
+                        nuovi.put(giorno, new Giorno(giorno));
+                    }
+                }
+                Map<Integer, List<Integer>> lette = new HashMap<>();
+                for (Prenotazione p : prenotazioni) {
+                    Giorno g = nuovi.get(giorno(p.getDataInizio()));
+                    if (g != null) {
+                        lette.computeIfAbsent(g.giorno, d -> new ArrayList<>()).add(p.getId());
+                        Info info = abitazioni.get(p.getAbitazioneId());
+                        if (info != null) {
+                            g.conta(p.getAbitazioneId(), info);
+                        }
+                    }
+                }
+                nuovi.values().forEach(g -> {
+                    List<Integer> ids = lette.get(g.giorno);
+                    if (ids != null) {
+                        g.lette = ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+                    }
+                    anello[slot(g.giorno)] = g;
+                    Map<Integer, Prenotazione> sospese = inSospeso.remove(g.giorno);
+                    if (sospese != null) {
+                        sospese.values().forEach(p -> conta(g, p));
+                    }
+                });
+            }
+        }
+    }
+
+    private void conta(Giorno g, Prenotazione prenotazione) {
+        Info info = abitazioni.get(prenotazione.getAbitazioneId());
+        if (info != null && !g.giaLetta(prenotazione.getId())) {
+            g.conta(prenotazione.getAbitazioneId(), info);
+        }
+    }
+
+    private void togliInSospeso(Prenotazione prenotazione) {
+        Map<Integer, Prenotazione> sospese = inSospeso.get(giorno(prenotazione.getDataInizio()));
+        if (sospese != null) {
+            sospese.remove(prenotazione.getId());
+        }
+    }
+
+    private Giorno valido(int giorno) {
+        Giorno g = anello[slot(giorno)];
+        return g != null && g.giorno == giorno ? g : null;
+    }
+
+    private void invalida(int giorno) {
+        generazione++;
+        invalidatoIl[slot(giorno)] = generazione;
+        Giorno g = anello[slot(giorno)];
+        if (g != null && g.giorno == giorno) {
+            anello[slot(giorno)] = null;
+        }
+    }
+
+    private void invalidaTutto() {
+        generazione++;
+        Arrays.fill(invalidatoIl, generazione);
+        Arrays.fill(anello, null);
+    }
+
+    private static int slot(int giorno) {
+        return Math.floorMod(giorno, FINESTRA_MASSIMA);
+    }
+
+    private static int giorno(LocalDate data) {
+        return (int) data.toEpochDay();
+    }
+
+    private static String citta(String indirizzo) {
+        if (indirizzo == null) {
+            return TUTTE;
+        }
+        int virgola = indirizzo.lastIndexOf(',');
+        return normalizza(virgola < 0 ? indirizzo : indirizzo.substring(virgola + 1));
+    }
+
+    private static String normalizza(String citta) {
+        return citta.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Info {
+
+        private final Integer hostId;
+        private final String citta;
+        private final String nome;
+
+        private Info(Abitazione abitazione) {
+            this.hostId = abitazione.getHostId();
+            this.citta = citta(abitazione.getIndirizzo());
+            this.nome = abitazione.getNome();
+        }
+    }
+
+    private final class Giorno {
+
+        private final int giorno;
+        private final Map<String, SpaceSaving> perAbitazione = new HashMap<>();
+        private final Map<String, SpaceSaving> perHost = new HashMap<>();
+        private int[] lette = new int[0];
+
+        private Giorno(int giorno) {
+            this.giorno = giorno;
+        }
+
+        // Una prenotazione già letta dalla ricostruzione ha il commit precedente alla lettura:
+        // la notifica che arriva dopo non va contata una seconda volta.
+        private boolean giaLetta(int prenotazioneId) {
+            return Arrays.binarySearch(lette, prenotazioneId) >= 0;
+        }
+
+        private void conta(Integer abitazioneId, Info info) {
+            offri(perAbitazione, TUTTE, abitazioneId);
+            offri(perHost, TUTTE, info.hostId);
+            if (!info.citta.isEmpty()) {
+                offri(perAbitazione, info.citta, abitazioneId);
+                offri(perHost, info.citta, info.hostId);
+            }
+        }
+
+        private void offri(Map<String, SpaceSaving> sketches, String scope, int id) {
+            sketches.computeIfAbsent(scope, s -> new SpaceSaving(capacita)).offer(id);
+        }
+
+        private SpaceSaving sketch(Entita entita, String scope) {
+            return (entita == Entita.ABITAZIONE ? perAbitazione : perHost).get(scope);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.DashboardDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Feedback;
+import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.Utente;
+
+public class ContatoriDashboard implements DominioListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ContatoriDashboard.class);
+
+    private static final ContatoriDashboard INSTANCE = new ContatoriDashboard();
+
+    private final DashboardDAO dashboardDAO = new DashboardDAO();
+
+    private final Object ricarica = new Object();
+    private List<Runnable> eventiDuranteCarica;
+    private Stato stato = new Stato(new BitSet(), new BitSet());
+
+    private ContatoriDashboard() {
+    }
+
+    public static ContatoriDashboard getInstance() {
+        return INSTANCE;
+    }
+
+    public void carica() {
+        synchronized (ricarica) {
+            synchronized (this) {
+                eventiDuranteCarica = new ArrayList<>();
+            }
+            try {
+                ricarica();
+            } finally {
+                synchronized (this) {
+                    eventiDuranteCarica = null;
+                }
+            }
+        }
+    }
+
+    private void ricarica() {
+        long start = System.currentTimeMillis();
+        Stato nuovo;
+        try {
+            nuovo = new Stato(dashboardDAO.findIdUtenti(), dashboardDAO.findIdHost());
+            dashboardDAO.forEachPunteggio(nuovo::impostaFeedback);
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore caricamento contatori dashboard", e);
+        }
+
+        int rieseguiti;
+        synchronized (this) {
+            stato = nuovo;
+            eventiDuranteCarica.forEach(Runnable::run);
+            rieseguiti = eventiDuranteCarica.size();
+        }
+        log.info("Contatori dashboard caricati: {} utenti, {} host, {} feedback, {} eventi rieseguiti in {} ms",
+                nuovo.utenti.cardinality(), nuovo.host.cardinality(), nuovo.feedback, rieseguiti,
+                System.currentTimeMillis() - start);
+    }
+
+    public synchronized long getTotaleUtenti() {
+        return stato.utenti.cardinality();
+    }
+
+    public synchronized long getTotaleHost() {
+        return stato.host.cardinality();
+    }
+
+    public synchronized long getTotaleFeedback() {
+        return stato.feedback;
+    }
+
+    public synchronized double getFeedbackMedio() {
+        return stato.conPunteggio == 0 ? 0.0 : (double) stato.sommaPunteggi / stato.conPunteggio;
+    }
+
+    @Override
+    public void utenteCreato(Utente utente) {
+        applica(() -> {
+            stato.utenti.set(utente.getId());
+            if (utente instanceof Host) {
+                stato.host.set(utente.getId());
+            }
+        });
+    }
+
+    @Override
+    public void utenteEliminato(Integer id) {
+        applica(() -> {
+            stato.utenti.clear(id);
+            stato.host.clear(id);
+        });
+    }
+
+    @Override
+    public void feedbackCreato(Feedback feedback) {
+        applica(() -> stato.impostaFeedback(feedback.getPrenotazioneId(), feedback.getPunteggio()));
+    }
+
+    @Override
+    public void feedbackAggiornato(Feedback prima, Feedback dopo) {
+        applica(() -> {
+            stato.rimuoviFeedback(prima.getPrenotazioneId());
+            stato.impostaFeedback(dopo.getPrenotazioneId(), dopo.getPunteggio());
+        });
+    }
+
+    @Override
+    public void feedbackEliminato(Feedback feedback) {
+        applica(() -> stato.rimuoviFeedback(feedback.getPrenotazioneId()));
+    }
+
+    @Override
+    public void prenotazioneEliminata(Prenotazione prenotazione) {
+        applica(() -> stato.rimuoviFeedback(prenotazione.getId()));
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        if (tabella == Tabella.UTENTE || tabella == Tabella.HOST || tabella == Tabella.FEEDBACK) {
+            carica();
+        }
+    }
+
+    private synchronized void applica(Runnable evento) {
+        evento.run();
+        if (eventiDuranteCarica != null) {
+            eventiDuranteCarica.add(evento);
+        }
+    }
+
+    // Il feedback è indicizzato per prenotazione (al massimo uno ciascuna): 0 nessun feedback,
+    // 1 feedback senza punteggio, altrimenti punteggio + 1. Così ogni evento è idempotente.
+    private static final class Stato {
+
+        private final BitSet utenti;
+        private final BitSet host;
+        private byte[] perPrenotazione = new byte[1024];
+        private long feedback;
+        private long conPunteggio;
+        private long sommaPunteggi;
+
+        private Stato(BitSet utenti, BitSet host) {
+            this.utenti = utenti;
+            this.host = host;
+        }
+
+        private void impostaFeedback(Integer prenotazioneId, Integer punteggio) {
+            rimuoviFeedback(prenotazioneId);
+            if (prenotazioneId >= perPrenotazione.length) {
+                perPrenotazione = Arrays.copyOf(perPrenotazione, Math.max(prenotazioneId + 1, perPrenotazione.length * 2));
+            }
+            int valore = punteggio == null ? 0 : punteggio;
+            perPrenotazione[prenotazioneId] = (byte) (valore + 1);
+            feedback++;
+            if (valore > 0) {
+                conPunteggio++;
+                sommaPunteggi += valore;
+            }
+        }
+
+        private void rimuoviFeedback(Integer prenotazioneId) {
+            if (prenotazioneId >= perPrenotazione.length || perPrenotazione[prenotazioneId] == 0) {
+                return;
+            }
+            int valore = perPrenotazione[prenotazioneId] - 1;
+            perPrenotazione[prenotazioneId] = 0;
+            feedback--;
+            if (valore > 0) {
+                conPunteggio--;
+                sommaPunteggi -= valore;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package it.turistafacoltoso.service;
+
+import it.turistafacoltoso.dao.AbitazioneDAO;
+import it.turistafacoltoso.dao.FeedbackDAO;
+import it.turistafacoltoso.dao.HostDAO;
+import it.turistafacoltoso.dao.PrenotazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.dao.UtenteDAO;
+import it.turistafacoltoso.dao.UtenteDAOImpl;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Dashboard;
+import it.turistafacoltoso.model.Feedback;
+import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.PuntoSerie;
+import it.turistafacoltoso.model.RichiestaPagina;
+import it.turistafacoltoso.model.Utente;
+import it.turistafacoltoso.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class DashboardService {
+
+    private static final int RECENTI = 60;
+    private static final int MESI_SERIE = 12;
+
+    private static final ExecutorService ESECUTORE = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
+    private final FeedbackDAO feedbackDAO = new FeedbackDAO();
+    private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final HostDAO hostDAO = new HostDAO();
+    private final UtenteDAO utenteDAO = new UtenteDAOImpl();
+
+    public Dashboard getDashboard() {
+        return SingleFlight.esegui("dashboard", this::caricaDashboard, Tabella.values());
+    }
+
+    private Dashboard caricaDashboard() {
+        YearMonth meseCorrente = YearMonth.now();
+        YearMonth primoMese = meseCorrente.minusMonths(MESI_SERIE - 1);
+
+        CompletableFuture<List<Prenotazione>> prenotazioniRecenti = async(() -> prenotazioneDAO.findPagina(
+                new RichiestaPagina(null, "-dataInizio", RECENTI)).getElementi(), "Errore prenotazioni recenti");
+        CompletableFuture<List<Feedback>> feedbackRecenti = async(() -> feedbackDAO.findPagina(
+                new RichiestaPagina(null, "-id", RECENTI)).getElementi(), "Errore feedback recenti");
+        CompletableFuture<List<Abitazione>> abitazioniRecenti = async(() -> abitazioneDAO.findPagina(
+                new RichiestaPagina(null, "-id", RECENTI)).getElementi(), "Errore abitazioni recenti");
+
+        AggregatiPrenotazioni aggregati = AggregatiPrenotazioni.getInstance();
+        List<PuntoSerie> serie = new ArrayList<>();
+        aggregati.getPrenotazioniPerMese(primoMese, meseCorrente)
+                .forEach((mese, totale) -> serie.add(new PuntoSerie(mese.toString(), totale)));
+
+        ContatoriDashboard contatori = ContatoriDashboard.getInstance();
+        Dashboard dashboard = new Dashboard();
+        dashboard.setTotaleUtenti(contatori.getTotaleUtenti());
+        dashboard.setTotaleHost(contatori.getTotaleHost());
+        dashboard.setTotaleFeedback(contatori.getTotaleFeedback());
+        dashboard.setFeedbackMedio(contatori.getFeedbackMedio());
+        dashboard.setTotalePrenotazioni(aggregati.getTotalePrenotazioni());
+        dashboard.setTotaleAbitazioni(aggregati.getTotaleAbitazioni());
+        dashboard.setPrenotazioniPerMese(serie);
+        dashboard.setPrenotazioniRecenti(join(prenotazioniRecenti));
+        dashboard.setFeedbackRecenti(join(feedbackRecenti));
+        dashboard.setAbitazioniRecenti(join(abitazioniRecenti));
+        aggiungiCollegati(dashboard);
+        return dashboard;
+    }
+
+    private void aggiungiCollegati(Dashboard dashboard) {
+        Set<Integer> prenotazioniIds = new LinkedHashSet<>();
+        for (Feedback f : dashboard.getFeedbackRecenti()) {
+            prenotazioniIds.add(f.getPrenotazioneId());
+        }
+        for (Prenotazione p : dashboard.getPrenotazioniRecenti()) {
+            prenotazioniIds.remove(p.getId());
+        }
+        List<Prenotazione> prenotazioni = new ArrayList<>();
+        if (!prenotazioniIds.isEmpty()) {
+            try {
+                prenotazioni.addAll(prenotazioneDAO.findByIds(prenotazioniIds).values());
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore prenotazioni dashboard", e);
+            }
+        }
+
+        Set<Integer> utentiIds = new LinkedHashSet<>();
+        Set<Integer> abitazioniIds = new LinkedHashSet<>();
+        Set<Integer> hostIds = new LinkedHashSet<>();
+        for (List<Prenotazione> lista : List.of(dashboard.getPrenotazioniRecenti(), prenotazioni)) {
+            for (Prenotazione p : lista) {
+                utentiIds.add(p.getUtenteId());
+                abitazioniIds.add(p.getAbitazioneId());
+            }
+        }
+        for (Abitazione a : dashboard.getAbitazioniRecenti()) {
+            abitazioniIds.remove(a.getId());
+            hostIds.add(a.getHostId());
+        }
+
+        CompletableFuture<Map<Integer, Abitazione>> abitazioni = abitazioniIds.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : async(() -> abitazioneDAO.findByIds(abitazioniIds), "Errore abitazioni dashboard");
+        CompletableFuture<Map<Integer, Utente>> utenti = utentiIds.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : async(() -> utenteDAO.findByIds(utentiIds), "Errore utenti dashboard");
+        CompletableFuture<List<Host>> host = hostIds.isEmpty()
+                ? CompletableFuture.completedFuture(List.of())
+                : async(() -> hostDAO.findByIds(hostIds), "Errore host dashboard");
+
+        dashboard.setPrenotazioni(prenotazioni);
+        dashboard.setAbitazioni(new ArrayList<>(join(abitazioni).values()));
+        dashboard.setUtenti(new ArrayList<>(join(utenti).values()));
+        dashboard.setHost(join(host));
+    }
+
+    private static <T> CompletableFuture<T> async(Query<T> query, String messaggio) {
+        Long ultimaScrittura = DatabaseConnection.getLastWrite();
+        return CompletableFuture.supplyAsync(() -> {
+            DatabaseConnection.setLastWrite(ultimaScrittura);
+            try {
+                return query.esegui();
+            } catch (SQLException e) {
+                throw new DataAccessException(messaggio, e);
+            } finally {
+                DatabaseConnection.setLastWrite(null);
+            }
+        }, ESECUTORE);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Query<T> {
+        T esegui() throws SQLException;
+    }
+}
@@ -0,0 +1,36 @@
+package it.turistafacoltoso.service;
+
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Feedback;
+import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.Utente;
+
+public interface DominioListener {
+
+    default void prenotazioneCreata(Prenotazione prenotazione) {}
+
+    default void prenotazioneAggiornata(Prenotazione prima, Prenotazione dopo) {}
+
+    default void prenotazioneEliminata(Prenotazione prenotazione) {}
+
+    default void abitazioneCreata(Abitazione abitazione) {}
+
+    default void abitazioneAggiornata(Abitazione prima, Abitazione dopo) {}
+
+    default void abitazioneEliminata(Abitazione abitazione) {}
+
+    default void utenteCreato(Utente utente) {}
+
+    default void utenteAggiornato(Utente utente) {}
+
+    default void utenteEliminato(Integer id) {}
+
+    default void feedbackCreato(Feedback feedback) {}
+
+    default void feedbackAggiornato(Feedback prima, Feedback dopo) {}
+
+    default void feedbackEliminato(Feedback feedback) {}
+
+    default void datiImportati(Tabella tabella) {}
+}
@@ -0,0 +1,35 @@
+package it.turistafacoltoso.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class EventiDominio {
+
+    private static final Logger log = LoggerFactory.getLogger(EventiDominio.class);
+
+    private static final List<DominioListener> listeners = new CopyOnWriteArrayList<>();
+
+    private EventiDominio() {}
+
+    public static void registra(DominioListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void rimuovi(DominioListener listener) {
+        listeners.remove(listener);
+    }
+
+    static void notifica(Consumer<DominioListener> evento) {
+        for (DominioListener listener : listeners) {
+            try {
+                evento.accept(listener);
+            } catch (RuntimeException e) {
+                log.error("Listener {} fallito: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package it.turistafacoltoso.service;
+
+import it.turistafacoltoso.dao.ExportDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.exception.ValidationException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+public class ExportService {
+
+    public static final String FORMATO_CSV = "csv";
+    public static final String FORMATO_NDJSON = "ndjson";
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final ExportDAO exportDAO = new ExportDAO();
+
+    public void verificaFormato(String formato) {
+        if (!FORMATO_CSV.equalsIgnoreCase(formato) && !FORMATO_NDJSON.equalsIgnoreCase(formato)) {
+            throw new ValidationException("Formato non supportato: " + formato + " (usa csv o ndjson)");
+        }
+    }
+
+    public long esporta(Tabella tabella, String formato, OutputStream out) {
+        verificaFormato(formato);
+        try {
+            if (FORMATO_CSV.equalsIgnoreCase(formato)) {
+                return exportDAO.esportaCsv(tabella, out);
+            }
+            return exportDAO.esportaRighe(tabella, row -> {
+                mapper.writeValue(out, row);
+                out.write('\n');
+            });
+        } catch (SQLException | IOException e) {
+            throw new DataAccessException("Errore export " + tabella.getNome(), e);
+        }
+    }
+}
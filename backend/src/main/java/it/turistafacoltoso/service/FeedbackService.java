@@ -1,31 +1,50 @@
 package it.turistafacoltoso.service;
 
 import it.turistafacoltoso.dao.FeedbackDAO;
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.exception.DataAccessException;
 import it.turistafacoltoso.exception.NotFoundException;
+import it.turistafacoltoso.exception.ValidationException;
 import it.turistafacoltoso.model.Feedback;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
+import it.turistafacoltoso.util.SqlStateUtil;
 
 import java.sql.SQLException;
 import java.util.List;
 
 public class FeedbackService {
 
+    private static final String FEEDBACK_DUPLICATO = "Esiste già un feedback per questa prenotazione. Ogni prenotazione può avere un solo feedback.";
+
     private final FeedbackDAO feedbackDAO = new FeedbackDAO();
 
     public List<Feedback> findAll() {
+        return SingleFlight.esegui("feedback.findAll", () -> {
+            try {
+                return feedbackDAO.findAll();
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore lettura feedback", e);
+            }
+        }, Tabella.FEEDBACK);
+    }
+
+    public Pagina<Feedback> findPagina(RichiestaPagina richiesta) {
         try {
-            return feedbackDAO.findAll();
+            return feedbackDAO.findPagina(richiesta);
         } catch (SQLException e) {
-            throw new DataAccessException("Errore lettura feedback", e);
+            throw new DataAccessException("Errore lettura pagina feedback", e);
         }
     }
 
     public Feedback findById(Integer id) {
-        try {
-            return feedbackDAO.findById(id);
-        } catch (SQLException e) {
-            throw new DataAccessException("Errore ricerca feedback", e);
-        }
+        return CacheEntita.FEEDBACK.get(id, chiave -> {
+            try {
+                return feedbackDAO.findById(chiave);
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore ricerca feedback", e);
+            }
+        });
     }
 
     public Feedback findByPrenotazioneId(Integer prenotazioneId) {
@@ -38,49 +57,59 @@ public class FeedbackService {
 
     public Feedback create(Feedback feedback) {
         try {
-            if (feedbackDAO.findByPrenotazioneId(feedback.getPrenotazioneId()) != null) {
-                throw new DataAccessException("Esiste già un feedback per questa prenotazione. Ogni prenotazione può avere un solo feedback.");
+            Feedback created = feedbackDAO.insert(feedback);
+            if (created == null) {
+                throw new DataAccessException(FEEDBACK_DUPLICATO);
             }
+            EventiDominio.notifica(l -> l.feedbackCreato(created));
+            VersioniTabelle.incrementa(Tabella.FEEDBACK);
+            return created;
         } catch (SQLException e) {
-            throw new DataAccessException("Errore verifica feedback prenotazione", e);
-        }
-        try {
-            return feedbackDAO.insert(feedback);
-        } catch (SQLException e) {
-            if ("23505".equals(e.getSQLState())) {
-                throw new DataAccessException("Esiste già un feedback per questa prenotazione. Ogni prenotazione può avere un solo feedback.", e);
-            }
-            throw new DataAccessException("Errore creazione feedback", e);
+            throw erroreScrittura(e, "Errore creazione feedback");
         }
     }
 
     public Feedback update(Integer id, Feedback feedback) {
         feedback.setId(id);
         try {
-            Feedback existingForPrenotazione = feedbackDAO.findByPrenotazioneId(feedback.getPrenotazioneId());
-            if (existingForPrenotazione != null && !existingForPrenotazione.getId().equals(id)) {
-                throw new DataAccessException("Esiste già un feedback per questa prenotazione. Ogni prenotazione può avere un solo feedback.");
-            }
-            if (feedbackDAO.findById(id) == null) {
-                throw new NotFoundException("Feedback non trovato");
-            }
-            if (feedbackDAO.update(feedback)) {
+            Feedback prima = feedbackDAO.update(feedback);
+            if (prima != null) {
+                CacheEntita.FEEDBACK.invalidate(id);
+                EventiDominio.notifica(l -> l.feedbackAggiornato(prima, feedback));
+                VersioniTabelle.incrementa(Tabella.FEEDBACK);
                 return feedback;
             }
         } catch (SQLException e) {
-            throw new DataAccessException("Errore aggiornamento feedback", e);
+            throw erroreScrittura(e, "Errore aggiornamento feedback");
         }
         throw new NotFoundException("Feedback non trovato");
     }
 
     public boolean delete(Integer id) {
         try {
-            if (feedbackDAO.findById(id) == null) {
-                throw new NotFoundException("Feedback non trovato");
+            Feedback eliminato = feedbackDAO.delete(id);
+            if (eliminato == null) {
+                return false;
             }
-            return feedbackDAO.delete(id);
+            CacheEntita.FEEDBACK.invalidate(id);
+            EventiDominio.notifica(l -> l.feedbackEliminato(eliminato));
+            VersioniTabelle.incrementa(Tabella.FEEDBACK);
+            return true;
         } catch (SQLException e) {
             throw new DataAccessException("Errore eliminazione feedback", e);
         }
     }
+
+    private RuntimeException erroreScrittura(SQLException e, String messaggio) {
+        if (SqlStateUtil.isUniqueViolation(e)) {
+            return new DataAccessException(FEEDBACK_DUPLICATO, e);
+        }
+        if (SqlStateUtil.isForeignKeyViolation(e)) {
+            return new ValidationException("Prenotazione non trovata");
+        }
+        if (SqlStateUtil.isCheckViolation(e)) {
+            return new ValidationException("Il punteggio deve essere compreso tra 1 e 5.");
+        }
+        return new DataAccessException(messaggio, e);
+    }
 }
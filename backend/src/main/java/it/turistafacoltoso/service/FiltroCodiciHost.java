@@ -0,0 +1,220 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.HostDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.dao.VersioniDAO;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.util.AppConfig;
+import it.turistafacoltoso.util.BloomFilter;
+
+public class FiltroCodiciHost implements DominioListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroCodiciHost.class);
+
+    private static final FiltroCodiciHost INSTANCE = new FiltroCodiciHost();
+
+    private final HostDAO hostDAO = new HostDAO();
+    private final VersioniDAO versioniDAO = new VersioniDAO();
+
+    private final boolean enabled = AppConfig.getBoolean("host.filtroCodici.enabled", true);
+    private final double fpp = AppConfig.getDouble("host.filtroCodici.fpp", 0.01);
+    private volatile BloomFilter filtro;
+    // Valore del contatore di scrittura della tabella host coperto dal filtro: lettura iniziale più le scritture
+    // fatte da questo processo, che il filtro ha già visto.
+    private volatile long versione;
+    private volatile boolean daConfermare;
+    private volatile long prossimaRicarica;
+    private final ReadWriteLock scritture = new ReentrantReadWriteLock();
+    private final Object ricarica = new Object();
+    private final List<String> aggiunti = new ArrayList<>();
+    private boolean inCarica;
+    private long versioneInCarica;
+    private final AtomicBoolean ricaricaProgrammata = new AtomicBoolean();
+    private final AtomicLong scartati = new AtomicLong();
+    private final AtomicLong verifiche = new AtomicLong();
+    private final AtomicLong falsiPositivi = new AtomicLong();
+
+    private FiltroCodiciHost() {
+    }
+
+    public static FiltroCodiciHost getInstance() {
+        return INSTANCE;
+    }
+
+    public void carica() {
+        if (!enabled) {
+            return;
+        }
+        if (!VersioniTabelle.isSincronizzato()) {
+            log.warn("Filtro codici host disattivato: senza i contatori di scrittura del database non vedrebbe gli host "
+                    + "importati da CLI o scritti da altre istanze");
+            return;
+        }
+        synchronized (ricarica) {
+            try {
+                ricarica();
+            } finally {
+                synchronized (this) {
+                    inCarica = false;
+                }
+            }
+        }
+    }
+
+    // Il contatore si legge a scritture proprie ferme, così ognuna è già nel contatore o verrà contata dopo.
+    // Le scritture esterne possono avere avanzato il contatore senza aver ancora fatto commit: se ce ne sono
+    // state, il filtro nuovo va confermato da un'altra ricostruzione.
+    private void ricarica() {
+        long start = System.currentTimeMillis();
+        long versioneLetta;
+        boolean esterne;
+        scritture.writeLock().lock();
+        try {
+            versioneLetta = versioniDAO.findVersioni()[Tabella.HOST.ordinal()];
+            synchronized (this) {
+                esterne = versioneLetta != versione;
+                inCarica = true;
+                versioneInCarica = versioneLetta;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore lettura contatore host", e);
+        } finally {
+            scritture.writeLock().unlock();
+        }
+
+        List<String> codici;
+        try {
+            codici = hostDAO.findAllCodici();
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore caricamento filtro codici host", e);
+        }
+        BloomFilter nuovo = new BloomFilter(Math.max(codici.size() * 2, 1024), fpp);
+        codici.forEach(nuovo::put);
+        int riaggiunti;
+        synchronized (this) {
+            aggiunti.forEach(nuovo::put);
+            riaggiunti = aggiunti.size();
+            aggiunti.clear();
+            filtro = nuovo;
+            versione = versioneInCarica;
+            daConfermare = esterne;
+            prossimaRicarica = System.currentTimeMillis() + VersioniTabelle.getIntervalloMs();
+        }
+        log.info("Filtro codici host caricato: {} codici (+{} aggiunti in-process), {} bit, {} hash in {} ms",
+                codici.size(), riaggiunti, nuovo.getBitSize(), nuovo.getHashCount(), System.currentTimeMillis() - start);
+    }
+
+    // Un negativo è affidabile solo se nessun altro processo (import da CLI, altre istanze) ha scritto sulla
+    // tabella host dopo il caricamento: altrimenti si verifica sul DB e si ricostruisce il filtro in background.
+    public boolean puoEsistere(String codiceHost) {
+        BloomFilter f = filtro;
+        if (f == null || codiceHost == null || f.mightContain(codiceHost)) {
+            return true;
+        }
+        if (daConfermare || VersioniTabelle.getDatabase(Tabella.HOST) > versione) {
+            programmaRicarica();
+            return true;
+        }
+        scartati.incrementAndGet();
+        return false;
+    }
+
+    private void programmaRicarica() {
+        if (!ricaricaProgrammata.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("filtro-codici-host").start(() -> {
+            try {
+                long attesa = prossimaRicarica - System.currentTimeMillis();
+                if (attesa > 0) {
+                    Thread.sleep(attesa);
+                }
+                carica();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Ricaricamento filtro codici host fallito: {}", e.getMessage());
+            } finally {
+                ricaricaProgrammata.set(false);
+            }
+        });
+    }
+
+    void registraVerifica(boolean trovato) {
+        if (filtro == null) {
+            return;
+        }
+        verifiche.incrementAndGet();
+        if (!trovato) {
+            falsiPositivi.incrementAndGet();
+        }
+    }
+
+    void bloccaScritture() {
+        scritture.readLock().lock();
+    }
+
+    void sbloccaScritture() {
+        scritture.readLock().unlock();
+    }
+
+    // Da chiamare, con le scritture bloccate, dopo ogni istruzione andata a buon fine che fa scattare il trigger
+    // della tabella host (anche un UPDATE senza righe o la cascata di un DELETE su utente).
+    synchronized void scritturaPropria(String codiceHost) {
+        if (filtro == null && !inCarica) {
+            return;
+        }
+        versione++;
+        if (inCarica) {
+            versioneInCarica++;
+        }
+        if (codiceHost == null) {
+            return;
+        }
+        BloomFilter f = filtro;
+        if (f != null) {
+            f.put(codiceHost);
+        }
+        aggiunti.add(codiceHost);
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        if (tabella == Tabella.HOST) {
+            carica();
+        }
+    }
+
+    public Map<String, Object> getStatistiche() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        BloomFilter f = filtro;
+        m.put("attivo", f != null);
+        if (f == null) {
+            return m;
+        }
+        long negativi = scartati.get();
+        long positivi = verifiche.get();
+        long falsi = falsiPositivi.get();
+        m.put("bit", f.getBitSize());
+        m.put("hash", f.getHashCount());
+        m.put("fpAtteso", f.expectedFpp());
+        m.put("scartatiSenzaDb", negativi);
+        m.put("verificheDb", positivi);
+        m.put("falsiPositivi", falsi);
+        m.put("fpMisurato", negativi + falsi == 0 ? 0.0 : (double) falsi / (negativi + falsi));
+        return m;
+    }
+}
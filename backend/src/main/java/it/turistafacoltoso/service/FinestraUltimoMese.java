@@ -0,0 +1,287 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.AbitazioneDAO;
+import it.turistafacoltoso.dao.PrenotazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Prenotazione;
+
+public class FinestraUltimoMese implements DominioListener {
+
+    private static final int GIORNI = 32;
+
+    private static final Logger log = LoggerFactory.getLogger(FinestraUltimoMese.class);
+
+    private static final FinestraUltimoMese INSTANCE = new FinestraUltimoMese();
+
+    private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
+
+    private final Object ricarica = new Object();
+    private List<Runnable> eventiDuranteCarica;
+    private final Giorno[] anello = new Giorno[GIORNI];
+    private final TreeMap<Integer, Giorno> futuri = new TreeMap<>();
+    private final Map<Integer, Prenotazione> prenotazioni = new HashMap<>();
+    private final Map<Integer, Integer> prenotazioniAbitazione = new HashMap<>();
+    private final Map<Integer, Long> giorniUtente = new HashMap<>();
+    private final Map<Integer, Integer> hostAbitazione = new HashMap<>();
+    private int oggi;
+    private int inizio;
+
+    private FinestraUltimoMese() {
+    }
+
+    public static FinestraUltimoMese getInstance() {
+        return INSTANCE;
+    }
+
+    public void carica() {
+        synchronized (ricarica) {
+            synchronized (this) {
+                eventiDuranteCarica = new ArrayList<>();
+            }
+            try {
+                ricarica();
+            } finally {
+                synchronized (this) {
+                    eventiDuranteCarica = null;
+                }
+            }
+        }
+    }
+
+    private void ricarica() {
+        long start = System.currentTimeMillis();
+        LocalDate oggiData = LocalDate.now();
+        List<Abitazione> abitazioni;
+        List<Prenotazione> lette;
+        try {
+            abitazioni = abitazioneDAO.findAll();
+            lette = prenotazioneDAO.findByDataInizioDa(oggiData.minusMonths(1));
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore caricamento finestra ultimo mese", e);
+        }
+
+        int rieseguiti;
+        synchronized (this) {
+            Arrays.fill(anello, null);
+            futuri.clear();
+            prenotazioni.clear();
+            prenotazioniAbitazione.clear();
+            giorniUtente.clear();
+            hostAbitazione.clear();
+            oggi = giorno(oggiData);
+            inizio = giorno(oggiData.minusMonths(1));
+            for (Abitazione a : abitazioni) {
+                hostAbitazione.put(a.getId(), a.getHostId());
+            }
+            for (Prenotazione p : lette) {
+                metti(p);
+            }
+            avanza();
+            eventiDuranteCarica.forEach(Runnable::run);
+            rieseguiti = eventiDuranteCarica.size();
+        }
+        log.info("Finestra ultimo mese caricata: {} prenotazioni, {} eventi rieseguiti in {} ms",
+                lette.size(), rieseguiti, System.currentTimeMillis() - start);
+    }
+
+    public synchronized List<Integer> getHostPerPrenotazioni() {
+        avanza();
+        Map<Integer, Integer> perHost = new HashMap<>();
+        prenotazioniAbitazione.forEach((abitazioneId, totale) -> {
+            Integer hostId = hostAbitazione.get(abitazioneId);
+            if (hostId != null) {
+                perHost.merge(hostId, totale, Integer::sum);
+            }
+        });
+        return classifica(perHost, Integer.MAX_VALUE);
+    }
+
+    public synchronized Integer getAbitazionePiuGettonata() {
+        avanza();
+        List<Integer> prima = classifica(prenotazioniAbitazione, 1);
+        return prima.isEmpty() ? null : prima.get(0);
+    }
+
+    public synchronized List<Integer> getUtentiPerGiorni(int limite) {
+        avanza();
+        return classifica(giorniUtente, limite);
+    }
+
+    @Override
+    public void prenotazioneCreata(Prenotazione prenotazione) {
+        applica(() -> metti(prenotazione));
+    }
+
+    @Override
+    public void prenotazioneAggiornata(Prenotazione prima, Prenotazione dopo) {
+        applica(() -> metti(dopo));
+    }
+
+    @Override
+    public void prenotazioneEliminata(Prenotazione prenotazione) {
+        applica(() -> togli(prenotazione.getId()));
+    }
+
+    @Override
+    public void abitazioneCreata(Abitazione abitazione) {
+        applica(() -> hostAbitazione.put(abitazione.getId(), abitazione.getHostId()));
+    }
+
+    @Override
+    public void abitazioneAggiornata(Abitazione prima, Abitazione dopo) {
+        applica(() -> hostAbitazione.put(dopo.getId(), dopo.getHostId()));
+    }
+
+    @Override
+    public void abitazioneEliminata(Abitazione abitazione) {
+        applica(() -> hostAbitazione.remove(abitazione.getId()));
+    }
+
+    @Override
+    public void utenteEliminato(Integer id) {
+        applica(() -> hostAbitazione.values().removeIf(id::equals));
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        if (tabella == Tabella.ABITAZIONE || tabella == Tabella.PRENOTAZIONE) {
+            carica();
+        }
+    }
+
+    private synchronized void applica(Runnable evento) {
+        avanza();
+        evento.run();
+        if (eventiDuranteCarica != null) {
+            eventiDuranteCarica.add(evento);
+        }
+    }
+
+    private void avanza() {
+        LocalDate oggiData = LocalDate.now();
+        int nuovoOggi = giorno(oggiData);
+        if (nuovoOggi == oggi) {
+            return;
+        }
+        oggi = nuovoOggi;
+        inizio = giorno(oggiData.minusMonths(1));
+        for (int i = 0; i < GIORNI; i++) {
+            if (anello[i] != null && anello[i].giorno < inizio) {
+                scarta(anello[i]);
+                anello[i] = null;
+            }
+        }
+        prenotazioni.values().removeIf(p -> giorno(p.getDataInizio()) < inizio);
+        while (!futuri.isEmpty() && futuri.firstKey() <= oggi) {
+            Giorno g = futuri.pollFirstEntry().getValue();
+            if (g.giorno < inizio) {
+                scarta(g);
+            } else {
+                anello[Math.floorMod(g.giorno, GIORNI)] = g;
+            }
+        }
+    }
+
+    // Ogni prenotazione nella finestra è ricordata per id: un evento sostituisce la versione precedente invece di
+    // applicare un delta, così si può rieseguire sopra un caricamento che lo include già.
+    private void metti(Prenotazione p) {
+        togli(p.getId());
+        if (conta(p, 1)) {
+            prenotazioni.put(p.getId(), p);
+        }
+    }
+
+    private void togli(Integer id) {
+        Prenotazione p = prenotazioni.remove(id);
+        if (p != null) {
+            conta(p, -1);
+        }
+    }
+
+    private boolean conta(Prenotazione p, int segno) {
+        Giorno g = bucket(giorno(p.getDataInizio()), segno > 0);
+        if (g == null) {
+            return false;
+        }
+        long notti = ChronoUnit.DAYS.between(p.getDataInizio(), p.getDataFine());
+        g.prenotazioniAbitazione.merge(p.getAbitazioneId(), segno, FinestraUltimoMese::somma);
+        g.giorniUtente.merge(p.getUtenteId(), segno * notti, FinestraUltimoMese::somma);
+        prenotazioniAbitazione.merge(p.getAbitazioneId(), segno, FinestraUltimoMese::somma);
+        giorniUtente.merge(p.getUtenteId(), segno * notti, FinestraUltimoMese::somma);
+        return true;
+    }
+
+    private Giorno bucket(int giorno, boolean crea) {
+        if (giorno < inizio) {
+            return null;
+        }
+        if (giorno > oggi) {
+            return crea ? futuri.computeIfAbsent(giorno, Giorno::new) : futuri.get(giorno);
+        }
+        int slot = Math.floorMod(giorno, GIORNI);
+        if (anello[slot] == null && crea) {
+            anello[slot] = new Giorno(giorno);
+        }
+        return anello[slot];
+    }
+
+    private void scarta(Giorno g) {
+        g.prenotazioniAbitazione.forEach((id, totale) ->
+                prenotazioniAbitazione.merge(id, -totale, FinestraUltimoMese::somma));
+        g.giorniUtente.forEach((id, totale) ->
+                giorniUtente.merge(id, -totale, FinestraUltimoMese::somma));
+    }
+
+    private static <N extends Number & Comparable<N>> List<Integer> classifica(Map<Integer, N> totali, int limite) {
+        List<Map.Entry<Integer, N>> voci = new ArrayList<>(totali.entrySet());
+        voci.sort(Map.Entry.<Integer, N>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < voci.size() && i < limite; i++) {
+            ids.add(voci.get(i).getKey());
+        }
+        return ids;
+    }
+
+    private static Integer somma(Integer a, Integer b) {
+        int totale = a + b;
+        return totale == 0 ? null : totale;
+    }
+
+    private static Long somma(Long a, Long b) {
+        long totale = a + b;
+        return totale == 0 ? null : totale;
+    }
+
+    private static int giorno(LocalDate data) {
+        return (int) data.toEpochDay();
+    }
+
+    private static final class Giorno {
+
+        private final int giorno;
+        private final Map<Integer, Integer> prenotazioniAbitazione = new HashMap<>();
+        private final Map<Integer, Long> giorniUtente = new HashMap<>();
+
+        private Giorno(int giorno) {
+            this.giorno = giorno;
+        }
+    }
+}
@@ -1,100 +1,181 @@
 package it.turistafacoltoso.service;
 
 import it.turistafacoltoso.dao.HostDAO;
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.exception.DataAccessException;
 import it.turistafacoltoso.exception.NotFoundException;
+import it.turistafacoltoso.exception.ValidationException;
 import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
+import it.turistafacoltoso.service.ReportCache.Report;
+import it.turistafacoltoso.util.SqlStateUtil;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class HostService {
 
     private final HostDAO hostDAO = new HostDAO();
+    private final ReportCache reportCache = ReportCache.getInstance();
 
     public List<Host> findAll() {
+        return SingleFlight.esegui("host.findAll", () -> {
+            try {
+                return hostDAO.findAll();
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore lettura host", e);
+            }
+        }, Tabella.HOST, Tabella.UTENTE);
+    }
+
+    public Pagina<Host> findPagina(RichiestaPagina richiesta) {
         try {
-            return hostDAO.findAll();
+            return hostDAO.findPagina(richiesta);
         } catch (SQLException e) {
-            throw new DataAccessException("Errore lettura host", e);
+            throw new DataAccessException("Errore lettura pagina host", e);
         }
     }
 
     public Host findById(Integer id) {
-        try {
-            return hostDAO.findById(id);
-        } catch (SQLException e) {
-            throw new DataAccessException("Errore ricerca host", e);
-        }
+        return CacheEntita.HOST.get(id, chiave -> {
+            try {
+                return hostDAO.findById(chiave);
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore ricerca host", e);
+            }
+        });
     }
 
     public Host findByCodiceHost(String codiceHost) {
-        try {
-            return hostDAO.findByCodiceHost(codiceHost);
-        } catch (SQLException e) {
-            throw new DataAccessException("Errore ricerca host per codice", e);
+        FiltroCodiciHost filtro = FiltroCodiciHost.getInstance();
+        if (!filtro.puoEsistere(codiceHost)) {
+            return null;
         }
+        return CacheEntita.HOST_PER_CODICE.get(codiceHost, chiave -> {
+            try {
+                Host host = hostDAO.findByCodiceHost(chiave);
+                filtro.registraVerifica(host != null);
+                return host;
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore ricerca host per codice", e);
+            }
+        });
     }
 
     public Host create(Host host) {
+        FiltroCodiciHost filtro = FiltroCodiciHost.getInstance();
+        Host created;
+        filtro.bloccaScritture();
         try {
-            if (hostDAO.findByCodiceHost(host.getCodiceHost()) != null) {
-                throw new DataAccessException("Codice host già esistente. Scegli un altro codice (es. HOST002).");
-            }
-        } catch (SQLException e) {
-            throw new DataAccessException("Errore verifica codice host", e);
-        }
-        try {
-            return hostDAO.insert(host);
+            created = hostDAO.insert(host);
+            filtro.scritturaPropria(created.getCodiceHost());
         } catch (SQLException e) {
-            if ("23505".equals(e.getSQLState())) {
-                throw new DataAccessException("Codice host già esistente. Scegli un altro codice (es. HOST002).", e);
-            }
-            throw new DataAccessException("Errore creazione host", e);
+            throw erroreScrittura(e, "Errore creazione host");
+        } finally {
+            filtro.sbloccaScritture();
         }
+        EventiDominio.notifica(l -> l.utenteCreato(created));
+        VersioniTabelle.incrementa(Tabella.UTENTE, Tabella.HOST);
+        return created;
     }
 
     public Host update(Integer id, Host host) {
         host.setId(id);
+        FiltroCodiciHost filtro = FiltroCodiciHost.getInstance();
+        boolean aggiornato;
+        filtro.bloccaScritture();
         try {
-            Host existingWithCodice = hostDAO.findByCodiceHost(host.getCodiceHost());
-            if (existingWithCodice != null && !existingWithCodice.getId().equals(id)) {
-                throw new DataAccessException("Codice host già esistente. Scegli un altro codice (es. HOST002).");
-            }
-            if (hostDAO.findById(id) == null) {
-                throw new NotFoundException("Host non trovato");
-            }
-            if (hostDAO.update(host)) {
-                return host;
-            }
+            aggiornato = hostDAO.update(host);
+            filtro.scritturaPropria(aggiornato ? host.getCodiceHost() : null);
         } catch (SQLException e) {
-            throw new DataAccessException("Errore aggiornamento host", e);
+            throw erroreScrittura(e, "Errore aggiornamento host");
+        } finally {
+            filtro.sbloccaScritture();
         }
-        throw new NotFoundException("Host non trovato");
+        if (!aggiornato) {
+            throw new NotFoundException("Host non trovato");
+        }
+        CacheEntita.invalidaUtente(id);
+        EventiDominio.notifica(l -> l.utenteAggiornato(host));
+        VersioniTabelle.incrementa(Tabella.UTENTE, Tabella.HOST);
+        return host;
     }
 
     public boolean delete(Integer id) {
+        FiltroCodiciHost filtro = FiltroCodiciHost.getInstance();
+        filtro.bloccaScritture();
         try {
-            if (hostDAO.findById(id) == null) {
-                throw new NotFoundException("Host non trovato");
+            if (!hostDAO.delete(id)) {
+                return false;
             }
-            return hostDAO.delete(id);
+            filtro.scritturaPropria(null);
+            CacheEntita.utenteEliminato(id);
+            EventiDominio.notifica(l -> l.utenteEliminato(id));
+            VersioniTabelle.incrementa(Tabella.UTENTE, Tabella.HOST, Tabella.ABITAZIONE);
+            return true;
         } catch (SQLException e) {
+            if (SqlStateUtil.isForeignKeyViolation(e)) {
+                throw new ValidationException("Impossibile eliminare l'host: esistono prenotazioni sulle sue abitazioni.");
+            }
             throw new DataAccessException("Errore eliminazione host", e);
+        } finally {
+            filtro.sbloccaScritture();
+        }
+    }
+
+    private RuntimeException erroreScrittura(SQLException e, String messaggio) {
+        if (SqlStateUtil.isUniqueViolation(e)) {
+            if ("utente_email_key".equals(SqlStateUtil.constraintName(e))) {
+                return new DataAccessException("Email già esistente. Scegli un'altra email.", e);
+            }
+            return new DataAccessException("Codice host già esistente. Scegli un altro codice (es. HOST002).", e);
         }
+        return new DataAccessException(messaggio, e);
     }
 
     public List<Host> findHostPiuPrenotazioniUltimoMese() {
+        return reportCache.get(Report.TOP_HOST_MESE, () -> SingleFlight.esegui("host.topPrenotazioniMese",
+                this::caricaHostPiuPrenotazioniUltimoMese, Tabella.HOST, Tabella.UTENTE, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE));
+    }
+
+    private List<Host> caricaHostPiuPrenotazioniUltimoMese() {
+        List<Integer> ids = FinestraUltimoMese.getInstance().getHostPerPrenotazioni();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
         try {
-            return hostDAO.findHostPiuPrenotazioniUltimoMese();
+            Map<Integer, Host> perId = new HashMap<>();
+            for (Host host : hostDAO.findByIds(ids)) {
+                perId.put(host.getId(), host);
+            }
+            List<Host> hosts = new ArrayList<>();
+            for (Integer id : ids) {
+                if (perId.containsKey(id)) {
+                    hosts.add(perId.get(id));
+                }
+            }
+            return hosts;
         } catch (SQLException e) {
             throw new DataAccessException("Errore report host prenotazioni", e);
         }
     }
 
     public List<Host> findAllSuperHost() {
+        return reportCache.get(Report.SUPER_HOST, () -> SingleFlight.esegui("host.superHost",
+                this::caricaSuperHost, Tabella.HOST, Tabella.UTENTE, Tabella.ABITAZIONE, Tabella.PRENOTAZIONE));
+    }
+
+    private List<Host> caricaSuperHost() {
+        List<Integer> ids = AggregatiPrenotazioni.getInstance().getSuperHostIds();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
         try {
-            return hostDAO.findAllSuperHost();
+            return hostDAO.findByIds(ids);
         } catch (SQLException e) {
             throw new DataAccessException("Errore report super-host", e);
         }
@@ -0,0 +1,57 @@
+package it.turistafacoltoso.service;
+
+import it.turistafacoltoso.dao.BulkImportDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.exception.ValidationException;
+import it.turistafacoltoso.model.EsitoImport;
+import it.turistafacoltoso.util.NdjsonCsvReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+public class ImportService {
+
+    public static final String FORMATO_CSV = "csv";
+    public static final String FORMATO_NDJSON = "ndjson";
+
+    private final BulkImportDAO bulkImportDAO = new BulkImportDAO();
+
+    public EsitoImport importa(Tabella tabella, InputStream input, String formato) {
+        long inizio = System.currentTimeMillis();
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        if (FORMATO_NDJSON.equalsIgnoreCase(formato)) {
+            reader = new NdjsonCsvReader(reader, tabella.getColonne(),
+                    tabella.getColonne().stream().map(Tabella::toCamelCase).toList());
+        } else if (!FORMATO_CSV.equalsIgnoreCase(formato)) {
+            throw new ValidationException("Formato non supportato: " + formato + " (usa csv o ndjson)");
+        }
+
+        EsitoImport esito;
+        try {
+            esito = bulkImportDAO.importa(tabella, reader);
+        } catch (IOException e) {
+            throw new ValidationException("File di import non valido: " + e.getMessage());
+        } catch (SQLException e) {
+            String state = e.getSQLState();
+            if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                throw new ValidationException("Dati non validi per " + tabella.getNome() + ": " + e.getMessage());
+            }
+            throw new DataAccessException("Errore import " + tabella.getNome(), e);
+        }
+
+        esito.setDurataMs(System.currentTimeMillis() - inizio);
+        if (!esito.isValido()) {
+            throw new ValidationException("Import " + tabella.getNome() + " rifiutato: " + String.join("; ", esito.getErrori()));
+        }
+        CacheEntita.invalida(tabella);
+        EventiDominio.notifica(l -> l.datiImportati(tabella));
+        VersioniTabelle.incrementa(tabella);
+        return esito;
+    }
+}
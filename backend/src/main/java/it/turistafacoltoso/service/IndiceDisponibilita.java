@@ -0,0 +1,362 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.AbitazioneDAO;
+import it.turistafacoltoso.dao.PrenotazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Prenotazione;
+
+public class IndiceDisponibilita implements DominioListener {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceDisponibilita.class);
+
+    private static final IndiceDisponibilita INSTANCE = new IndiceDisponibilita();
+
+    private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
+
+    private final Object struttura = new Object();
+    private final Object ricarica = new Object();
+    private List<Runnable> eventiDuranteCarica;
+    private volatile Map<Integer, Voce> perId = new ConcurrentHashMap<>();
+    private volatile Voce[] ordinate = new Voce[0];
+
+    private IndiceDisponibilita() {
+    }
+
+    public static IndiceDisponibilita getInstance() {
+        return INSTANCE;
+    }
+
+    public void carica() {
+        synchronized (ricarica) {
+            synchronized (struttura) {
+                eventiDuranteCarica = new ArrayList<>();
+            }
+            try {
+                ricarica();
+            } finally {
+                synchronized (struttura) {
+                    eventiDuranteCarica = null;
+                }
+            }
+        }
+    }
+
+    private void ricarica() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Voce> nuove = new ConcurrentHashMap<>();
+        Map<Integer, Intervalli.Builder> builders = new HashMap<>();
+        int[] prenotazioni = { 0 };
+        try {
+            for (Abitazione a : abitazioneDAO.findAll()) {
+                nuove.put(a.getId(), new Voce(a));
+                builders.put(a.getId(), new Intervalli.Builder());
+            }
+            prenotazioneDAO.forEach(p -> {
+                Intervalli.Builder builder = builders.get(p.getAbitazioneId());
+                if (builder != null) {
+                    builder.add(p.getId(), giorno(p.getDataInizio()), giorno(p.getDataFine()));
+                    prenotazioni[0]++;
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore caricamento indice disponibilità", e);
+        }
+        builders.forEach((id, builder) -> nuove.get(id).intervalli = builder.build());
+
+        int rieseguiti;
+        synchronized (struttura) {
+            perId = nuove;
+            ordinate = ordina(nuove);
+            eventiDuranteCarica.forEach(Runnable::run);
+            rieseguiti = eventiDuranteCarica.size();
+        }
+        log.info("Indice disponibilità caricato: {} abitazioni, {} prenotazioni, {} eventi rieseguiti in {} ms",
+                nuove.size(), prenotazioni[0], rieseguiti, System.currentTimeMillis() - start);
+    }
+
+    public List<Abitazione> cerca(LocalDate dal, LocalDate al, int postiLetto) {
+        int inizio = giorno(dal);
+        int fine = giorno(al);
+        List<Abitazione> libere = new ArrayList<>();
+        for (Voce voce : ordinate) {
+            Dati dati = voce.dati;
+            if (dati.postiLetto >= postiLetto && dati.inizio <= inizio && fine <= dati.fine
+                    && voce.intervalli.libero(inizio, fine)) {
+                libere.add(dati.abitazione);
+            }
+        }
+        return libere;
+    }
+
+    @Override
+    public void prenotazioneCreata(Prenotazione prenotazione) {
+        applica(() -> aggiungi(prenotazione));
+    }
+
+    @Override
+    public void prenotazioneAggiornata(Prenotazione prima, Prenotazione dopo) {
+        applica(() -> {
+            rimuovi(prima);
+            aggiungi(dopo);
+        });
+    }
+
+    @Override
+    public void prenotazioneEliminata(Prenotazione prenotazione) {
+        applica(() -> rimuovi(prenotazione));
+    }
+
+    @Override
+    public void abitazioneCreata(Abitazione abitazione) {
+        applica(() -> {
+            Voce voce = perId.get(abitazione.getId());
+            if (voce != null) {
+                voce.dati = new Dati(abitazione);
+                return;
+            }
+            perId.put(abitazione.getId(), new Voce(abitazione));
+            ordinate = ordina(perId);
+        });
+    }
+
+    @Override
+    public void abitazioneAggiornata(Abitazione prima, Abitazione dopo) {
+        applica(() -> {
+            Voce voce = perId.get(dopo.getId());
+            if (voce != null) {
+                voce.dati = new Dati(dopo);
+            }
+        });
+    }
+
+    @Override
+    public void abitazioneEliminata(Abitazione abitazione) {
+        applica(() -> {
+            if (perId.remove(abitazione.getId()) != null) {
+                ordinate = ordina(perId);
+            }
+        });
+    }
+
+    @Override
+    public void utenteEliminato(Integer id) {
+        applica(() -> {
+            if (perId.values().removeIf(voce -> voce.dati.abitazione.getHostId().equals(id))) {
+                ordinate = ordina(perId);
+            }
+        });
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        if (tabella == Tabella.ABITAZIONE || tabella == Tabella.PRENOTAZIONE) {
+            carica();
+        }
+    }
+
+    // Durante carica() gli eventi vengono applicati e anche registrati, per poi essere rieseguiti sulla
+    // struttura nuova: sono idempotenti e, per ogni abitazione, arrivano nell'ordine di commit.
+    private void applica(Runnable evento) {
+        synchronized (struttura) {
+            evento.run();
+            if (eventiDuranteCarica != null) {
+                eventiDuranteCarica.add(evento);
+            }
+        }
+    }
+
+    private void aggiungi(Prenotazione p) {
+        Voce voce = perId.get(p.getAbitazioneId());
+        if (voce != null) {
+            synchronized (voce) {
+                voce.intervalli = voce.intervalli.con(p.getId(), giorno(p.getDataInizio()), giorno(p.getDataFine()));
+            }
+        }
+    }
+
+    private void rimuovi(Prenotazione p) {
+        Voce voce = perId.get(p.getAbitazioneId());
+        if (voce != null) {
+            synchronized (voce) {
+                voce.intervalli = voce.intervalli.senza(p.getId());
+            }
+        }
+    }
+
+    private static Voce[] ordina(Map<Integer, Voce> voci) {
+        Voce[] array = voci.values().toArray(new Voce[0]);
+        Arrays.sort(array, Comparator.comparingInt(v -> v.id));
+        return array;
+    }
+
+    private static int giorno(LocalDate data) {
+        return (int) data.toEpochDay();
+    }
+
+    private static final class Voce {
+
+        private final int id;
+        private volatile Dati dati;
+        private volatile Intervalli intervalli = Intervalli.VUOTI;
+
+        private Voce(Abitazione abitazione) {
+            this.id = abitazione.getId();
+            this.dati = new Dati(abitazione);
+        }
+    }
+
+    private static final class Dati {
+
+        private final Abitazione abitazione;
+        private final int postiLetto;
+        private final int inizio;
+        private final int fine;
+
+        private Dati(Abitazione abitazione) {
+            this.abitazione = abitazione;
+            this.postiLetto = abitazione.getPostiLetto();
+            this.inizio = giorno(abitazione.getDataInizio());
+            this.fine = giorno(abitazione.getDataFine());
+        }
+    }
+
+    static final class Intervalli {
+
+        static final Intervalli VUOTI = new Intervalli(new int[0], new int[0], new int[0]);
+
+        private final int[] ids;
+        private final int[] inizi;
+        private final int[] fini;
+        private final int[] maxFine;
+
+        private Intervalli(int[] ids, int[] inizi, int[] fini) {
+            this.ids = ids;
+            this.inizi = inizi;
+            this.fini = fini;
+            this.maxFine = new int[fini.length];
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < fini.length; i++) {
+                max = Math.max(max, fini[i]);
+                maxFine[i] = max;
+            }
+        }
+
+        boolean libero(int dal, int al) {
+            int i = ultimoInizioPrima(al);
+            return i < 0 || maxFine[i] <= dal;
+        }
+
+        Intervalli con(int id, int inizio, int fine) {
+            Intervalli base = senza(id);
+            if (fine <= inizio) {
+                return base;
+            }
+            int n = base.ids.length;
+            int pos = base.ultimoInizioPrima(inizio + 1) + 1;
+            int[] nuoviIds = new int[n + 1];
+            int[] nuoviInizi = new int[n + 1];
+            int[] nuoveFini = new int[n + 1];
+            copia(base, 0, nuoviIds, nuoviInizi, nuoveFini, 0, pos);
+            nuoviIds[pos] = id;
+            nuoviInizi[pos] = inizio;
+            nuoveFini[pos] = fine;
+            copia(base, pos, nuoviIds, nuoviInizi, nuoveFini, pos + 1, n - pos);
+            return new Intervalli(nuoviIds, nuoviInizi, nuoveFini);
+        }
+
+        Intervalli senza(int id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    int n = ids.length - 1;
+                    int[] nuoviIds = new int[n];
+                    int[] nuoviInizi = new int[n];
+                    int[] nuoveFini = new int[n];
+                    copia(this, 0, nuoviIds, nuoviInizi, nuoveFini, 0, i);
+                    copia(this, i + 1, nuoviIds, nuoviInizi, nuoveFini, i, n - i);
+                    return new Intervalli(nuoviIds, nuoviInizi, nuoveFini);
+                }
+            }
+            return this;
+        }
+
+        private int ultimoInizioPrima(int giorno) {
+            int lo = 0;
+            int hi = inizi.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (inizi[mid] < giorno) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return hi;
+        }
+
+        private static void copia(Intervalli da, int daPos, int[] ids, int[] inizi, int[] fini, int aPos, int n) {
+            System.arraycopy(da.ids, daPos, ids, aPos, n);
+            System.arraycopy(da.inizi, daPos, inizi, aPos, n);
+            System.arraycopy(da.fini, daPos, fini, aPos, n);
+        }
+
+        static final class Builder {
+
+            private int[] ids = new int[4];
+            private int[] inizi = new int[4];
+            private int[] fini = new int[4];
+            private int n = 0;
+
+            void add(int id, int inizio, int fine) {
+                if (fine <= inizio) {
+                    return;
+                }
+                if (n == ids.length) {
+                    ids = Arrays.copyOf(ids, n * 2);
+                    inizi = Arrays.copyOf(inizi, n * 2);
+                    fini = Arrays.copyOf(fini, n * 2);
+                }
+                ids[n] = id;
+                inizi[n] = inizio;
+                fini[n] = fine;
+                n++;
+            }
+
+            Intervalli build() {
+                if (n == 0) {
+                    return VUOTI;
+                }
+                long[] chiavi = new long[n];
+                for (int i = 0; i < n; i++) {
+                    chiavi[i] = ((long) inizi[i] << 32) | i;
+                }
+                Arrays.sort(chiavi);
+                int[] idsOrdinati = new int[n];
+                int[] iniziOrdinati = new int[n];
+                int[] finiOrdinate = new int[n];
+                for (int i = 0; i < n; i++) {
+                    int pos = (int) chiavi[i];
+                    idsOrdinati[i] = ids[pos];
+                    iniziOrdinati[i] = inizi[pos];
+                    finiOrdinate[i] = fini[pos];
+                }
+                return new Intervalli(idsOrdinati, iniziOrdinati, finiOrdinate);
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.AbitazioneDAO;
+import it.turistafacoltoso.dao.PrenotazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.OccupazioneAbitazione;
+import it.turistafacoltoso.model.OccupazioneHost;
+import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.ReportOccupazione;
+import it.turistafacoltoso.util.DayBitmap;
+
+public class IndiceOccupazione implements DominioListener {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceOccupazione.class);
+
+    private static final IndiceOccupazione INSTANCE = new IndiceOccupazione();
+
+    private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
+
+    private volatile Map<Integer, Calendario> calendari = new ConcurrentHashMap<>();
+    private final Object struttura = new Object();
+    private final Object ricarica = new Object();
+    private List<Runnable> eventiDuranteCarica;
+
+    private IndiceOccupazione() {
+    }
+
+    public static IndiceOccupazione getInstance() {
+        return INSTANCE;
+    }
+
+    public void carica() {
+        synchronized (ricarica) {
+            synchronized (struttura) {
+                eventiDuranteCarica = new ArrayList<>();
+            }
+            try {
+                ricarica();
+            } finally {
+                synchronized (struttura) {
+                    eventiDuranteCarica = null;
+                }
+            }
+        }
+    }
+
+    private void ricarica() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Calendario> nuovi = new ConcurrentHashMap<>();
+        try {
+            for (Abitazione a : abitazioneDAO.findAll()) {
+                nuovi.put(a.getId(), new Calendario(a));
+            }
+            prenotazioneDAO.forEach(p -> {
+                Calendario calendario = nuovi.get(p.getAbitazioneId());
+                if (calendario != null) {
+                    calendario.giorni = calendario.giorni.with(giorno(p.getDataInizio()), giorno(p.getDataFine()));
+                }
+            });
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore caricamento calendari occupazione", e);
+        }
+        int rieseguiti;
+        synchronized (struttura) {
+            calendari = nuovi;
+            eventiDuranteCarica.forEach(Runnable::run);
+            rieseguiti = eventiDuranteCarica.size();
+        }
+        log.info("Calendari occupazione caricati: {} abitazioni, {} eventi rieseguiti in {} ms",
+                nuovi.size(), rieseguiti, System.currentTimeMillis() - start);
+    }
+
+    public ReportOccupazione report(LocalDate from, LocalDate to) {
+        int inizio = giorno(from);
+        int fine = giorno(to);
+
+        List<OccupazioneAbitazione> abitazioni = new ArrayList<>();
+        Map<Integer, OccupazioneHost> host = new HashMap<>();
+        long totaleDisponibili = 0;
+        long totaleOccupate = 0;
+
+        for (Calendario calendario : calendari.values()) {
+            Abitazione a = calendario.abitazione;
+            int dal = Math.max(inizio, giorno(a.getDataInizio()));
+            int al = Math.min(fine, giorno(a.getDataFine()));
+            if (al <= dal) {
+                continue;
+            }
+            int disponibili = al - dal;
+            int occupate = calendario.giorni.count(dal, al);
+
+            OccupazioneAbitazione riga = new OccupazioneAbitazione();
+            riga.setAbitazioneId(a.getId());
+            riga.setNome(a.getNome());
+            riga.setHostId(a.getHostId());
+            riga.setNottiDisponibili(disponibili);
+            riga.setNottiOccupate(occupate);
+            riga.setTasso(tasso(occupate, disponibili));
+            abitazioni.add(riga);
+
+            OccupazioneHost perHost = host.computeIfAbsent(a.getHostId(), id -> {
+                OccupazioneHost h = new OccupazioneHost();
+                h.setHostId(id);
+                return h;
+            });
+            perHost.setAbitazioni(perHost.getAbitazioni() + 1);
+            perHost.setNottiDisponibili(perHost.getNottiDisponibili() + disponibili);
+            perHost.setNottiOccupate(perHost.getNottiOccupate() + occupate);
+
+            totaleDisponibili += disponibili;
+            totaleOccupate += occupate;
+        }
+
+        abitazioni.sort(Comparator.comparing(OccupazioneAbitazione::getAbitazioneId));
+        List<OccupazioneHost> perHost = new ArrayList<>(host.values());
+        perHost.forEach(h -> h.setTasso(tasso(h.getNottiOccupate(), h.getNottiDisponibili())));
+        perHost.sort(Comparator.comparing(OccupazioneHost::getHostId));
+
+        ReportOccupazione report = new ReportOccupazione();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setNottiDisponibili(totaleDisponibili);
+        report.setNottiOccupate(totaleOccupate);
+        report.setTasso(tasso(totaleOccupate, totaleDisponibili));
+        report.setAbitazioni(abitazioni);
+        report.setHost(perHost);
+        return report;
+    }
+
+    @Override
+    public void prenotazioneCreata(Prenotazione prenotazione) {
+        applica(() -> occupa(prenotazione));
+    }
+
+    @Override
+    public void prenotazioneAggiornata(Prenotazione prima, Prenotazione dopo) {
+        applica(() -> {
+            libera(prima);
+            occupa(dopo);
+        });
+    }
+
+    @Override
+    public void prenotazioneEliminata(Prenotazione prenotazione) {
+        applica(() -> libera(prenotazione));
+    }
+
+    @Override
+    public void abitazioneCreata(Abitazione abitazione) {
+        applica(() -> {
+            Calendario calendario = calendari.get(abitazione.getId());
+            if (calendario != null) {
+                calendario.abitazione = abitazione;
+            } else {
+                calendari.put(abitazione.getId(), new Calendario(abitazione));
+            }
+        });
+    }
+
+    @Override
+    public void abitazioneAggiornata(Abitazione prima, Abitazione dopo) {
+        applica(() -> {
+            Calendario calendario = calendari.get(dopo.getId());
+            if (calendario != null) {
+                calendario.abitazione = dopo;
+            }
+        });
+    }
+
+    @Override
+    public void abitazioneEliminata(Abitazione abitazione) {
+        applica(() -> calendari.remove(abitazione.getId()));
+    }
+
+    @Override
+    public void utenteEliminato(Integer id) {
+        applica(() -> calendari.values().removeIf(c -> c.abitazione.getHostId().equals(id)));
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        if (tabella == Tabella.ABITAZIONE || tabella == Tabella.PRENOTAZIONE) {
+            carica();
+        }
+    }
+
+    private void applica(Runnable evento) {
+        synchronized (struttura) {
+            evento.run();
+            if (eventiDuranteCarica != null) {
+                eventiDuranteCarica.add(evento);
+            }
+        }
+    }
+
+    private void occupa(Prenotazione p) {
+        Calendario calendario = calendari.get(p.getAbitazioneId());
+        if (calendario != null) {
+            synchronized (calendario) {
+                calendario.giorni = calendario.giorni.with(giorno(p.getDataInizio()), giorno(p.getDataFine()));
+            }
+        }
+    }
+
+    private void libera(Prenotazione p) {
+        Calendario calendario = calendari.get(p.getAbitazioneId());
+        if (calendario != null) {
+            synchronized (calendario) {
+                calendario.giorni = calendario.giorni.without(giorno(p.getDataInizio()), giorno(p.getDataFine()));
+            }
+        }
+    }
+
+    private static double tasso(long occupate, long disponibili) {
+        return disponibili == 0 ? 0.0 : Math.round(occupate * 10000.0 / disponibili) / 10000.0;
+    }
+
+    private static int giorno(LocalDate data) {
+        return (int) data.toEpochDay();
+    }
+
+    private static final class Calendario {
+
+        private volatile Abitazione abitazione;
+        private volatile DayBitmap giorni = DayBitmap.EMPTY;
+
+        private Calendario(Abitazione abitazione) {
+            this.abitazione = abitazione;
+        }
+    }
+}
@@ -1,49 +1,106 @@
 package it.turistafacoltoso.service;
 
 import it.turistafacoltoso.dao.PrenotazioneDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.ConflictException;
 import it.turistafacoltoso.exception.DataAccessException;
 import it.turistafacoltoso.exception.ValidationException;
 import it.turistafacoltoso.exception.NotFoundException;
 import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.EsitoPrenotazioneBatch;
+import it.turistafacoltoso.model.Pagina;
 import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.RichiestaPagina;
+import it.turistafacoltoso.model.Utente;
+import it.turistafacoltoso.util.AppConfig;
+import it.turistafacoltoso.util.SqlStateUtil;
+import it.turistafacoltoso.util.StripedLock;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 public class PrenotazioneService {
 
+    private static final String DATE_OCCUPATE = "L'abitazione è già prenotata per almeno una delle notti richieste.";
+
+    private static final StripedLock LOCK_ABITAZIONI = new StripedLock(AppConfig.getInt("prenotazioni.lockStripes", 256));
+
     private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
     private final AbitazioneService abitazioneService = new AbitazioneService();
+    private final UtenteService utenteService = new UtenteService();
+
+    private final int maxBatchSize = AppConfig.getInt("prenotazioni.batch.maxSize", 1000);
 
     private void validaDateInDisponibilita(Prenotazione prenotazione) {
+        if (prenotazione.getDataFine().isBefore(prenotazione.getDataInizio())) {
+            throw new ValidationException("La data di fine deve essere successiva alla data di inizio.");
+        }
         Abitazione abitazione = abitazioneService.findById(prenotazione.getAbitazioneId());
         if (abitazione == null) return;
+        String errore = erroreDisponibilita(abitazione, prenotazione);
+        if (errore != null) {
+            throw new ValidationException(errore);
+        }
+    }
+
+    private String erroreDisponibilita(Abitazione abitazione, Prenotazione prenotazione) {
         LocalDate dispInizio = abitazione.getDataInizio();
         LocalDate dispFine = abitazione.getDataFine();
         LocalDate prenInizio = prenotazione.getDataInizio();
         LocalDate prenFine = prenotazione.getDataFine();
         if (prenInizio.isBefore(dispInizio) || prenFine.isAfter(dispFine)) {
-            throw new ValidationException(
-                "Le date della prenotazione devono essere comprese nel periodo di disponibilità dell'abitazione (dal " + dispInizio + " al " + dispFine + ")."
-            );
+            return "Le date della prenotazione devono essere comprese nel periodo di disponibilità dell'abitazione (dal " + dispInizio + " al " + dispFine + ").";
         }
+        return null;
+    }
+
+    private String erroreBatch(Prenotazione prenotazione, Map<Integer, Abitazione> abitazioni) {
+        if (prenotazione == null || prenotazione.getDataInizio() == null || prenotazione.getDataFine() == null
+                || prenotazione.getUtenteId() == null || prenotazione.getAbitazioneId() == null) {
+            return "Campi obbligatori mancanti (dataInizio, dataFine, utenteId, abitazioneId).";
+        }
+        if (prenotazione.getDataFine().isBefore(prenotazione.getDataInizio())) {
+            return "La data di fine deve essere successiva alla data di inizio.";
+        }
+        Abitazione abitazione = abitazioni.get(prenotazione.getAbitazioneId());
+        if (abitazione == null) {
+            return "Abitazione non trovata";
+        }
+        return erroreDisponibilita(abitazione, prenotazione);
     }
 
     public List<Prenotazione> findAll() {
+        return SingleFlight.esegui("prenotazione.findAll", () -> {
+            try {
+                return prenotazioneDAO.findAll();
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore lettura prenotazioni", e);
+            }
+        }, Tabella.PRENOTAZIONE);
+    }
+
+    public Pagina<Prenotazione> findPagina(RichiestaPagina richiesta) {
         try {
-            return prenotazioneDAO.findAll();
+            return prenotazioneDAO.findPagina(richiesta);
         } catch (SQLException e) {
-            throw new DataAccessException("Errore lettura prenotazioni", e);
+            throw new DataAccessException("Errore lettura pagina prenotazioni", e);
         }
     }
 
     public Prenotazione findById(Integer id) {
-        try {
-            return prenotazioneDAO.findById(id);
-        } catch (SQLException e) {
-            throw new DataAccessException("Errore ricerca prenotazione", e);
-        }
+        return CacheEntita.PRENOTAZIONI.get(id, chiave -> {
+            try {
+                return prenotazioneDAO.findById(chiave);
+            } catch (SQLException e) {
+                throw new DataAccessException("Errore ricerca prenotazione", e);
+            }
+        });
     }
 
     public Prenotazione findUltimaByUtenteId(Integer utenteId) {
@@ -56,36 +113,187 @@ public class PrenotazioneService {
 
     public Prenotazione create(Prenotazione prenotazione) {
         validaDateInDisponibilita(prenotazione);
+        Lock lock = LOCK_ABITAZIONI.get(prenotazione.getAbitazioneId());
+        lock.lock();
         try {
-            return prenotazioneDAO.insert(prenotazione);
+            Prenotazione created = prenotazioneDAO.insert(prenotazione);
+            if (created == null) {
+                throw new ConflictException(DATE_OCCUPATE);
+            }
+            EventiDominio.notifica(l -> l.prenotazioneCreata(created));
+            VersioniTabelle.incrementa(Tabella.PRENOTAZIONE);
+            return created;
         } catch (SQLException e) {
-            throw new DataAccessException("Errore creazione prenotazione", e);
+            throw erroreScrittura(e, "Errore creazione prenotazione");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<EsitoPrenotazioneBatch> createBatch(List<Prenotazione> prenotazioni) {
+        if (prenotazioni == null || prenotazioni.isEmpty()) {
+            throw new ValidationException("Nessuna prenotazione da creare.");
+        }
+        if (prenotazioni.size() > maxBatchSize) {
+            throw new ValidationException("Troppe prenotazioni in un'unica richiesta (massimo " + maxBatchSize + ").");
+        }
+
+        Set<Integer> abitazioneIds = new HashSet<>();
+        for (Prenotazione p : prenotazioni) {
+            if (p != null && p.getAbitazioneId() != null) {
+                abitazioneIds.add(p.getAbitazioneId());
+            }
+        }
+        Map<Integer, Abitazione> abitazioni = abitazioneService.findByIds(abitazioneIds);
+
+        List<EsitoPrenotazioneBatch> esiti = new ArrayList<>(prenotazioni.size());
+        List<Prenotazione> valide = new ArrayList<>();
+        List<EsitoPrenotazioneBatch> esitiValide = new ArrayList<>();
+        for (int i = 0; i < prenotazioni.size(); i++) {
+            EsitoPrenotazioneBatch esito = new EsitoPrenotazioneBatch(i);
+            String errore = erroreBatch(prenotazioni.get(i), abitazioni);
+            if (errore != null) {
+                esito.scartata(errore);
+            } else {
+                valide.add(prenotazioni.get(i));
+                esitiValide.add(esito);
+            }
+            esiti.add(esito);
+        }
+
+        if (!valide.isEmpty()) {
+            boolean[] inserite = insertBatch(valide);
+            Set<Integer> utentiScartati = new HashSet<>();
+            for (int i = 0; i < valide.size(); i++) {
+                if (!inserite[i]) {
+                    utentiScartati.add(valide.get(i).getUtenteId());
+                }
+            }
+            Map<Integer, Utente> utentiEsistenti = utentiScartati.isEmpty() ? Map.of() : utenteService.findByIds(utentiScartati);
+            for (int i = 0; i < valide.size(); i++) {
+                if (inserite[i]) {
+                    esitiValide.get(i).creata(valide.get(i).getId());
+                } else if (!utentiEsistenti.containsKey(valide.get(i).getUtenteId())) {
+                    esitiValide.get(i).scartata("Utente non trovato");
+                } else {
+                    esitiValide.get(i).scartata(DATE_OCCUPATE);
+                }
+            }
+        }
+        return esiti;
+    }
+
+    private boolean[] insertBatch(List<Prenotazione> prenotazioni) {
+        Set<Integer> abitazioneIds = new HashSet<>();
+        for (Prenotazione p : prenotazioni) {
+            abitazioneIds.add(p.getAbitazioneId());
+        }
+        List<Lock> locks = LOCK_ABITAZIONI.getAll(abitazioneIds);
+        locks.forEach(Lock::lock);
+        try {
+            boolean[] inserite = prenotazioneDAO.insertBatch(prenotazioni);
+            for (int i = 0; i < inserite.length; i++) {
+                if (inserite[i]) {
+                    Prenotazione created = prenotazioni.get(i);
+                    EventiDominio.notifica(l -> l.prenotazioneCreata(created));
+                }
+            }
+            VersioniTabelle.incrementa(Tabella.PRENOTAZIONE);
+            return inserite;
+        } catch (SQLException e) {
+            throw erroreScrittura(e, "Errore creazione batch prenotazioni");
+        } finally {
+            sblocca(locks);
         }
     }
 
     public Prenotazione update(Integer id, Prenotazione prenotazione) {
         prenotazione.setId(id);
         validaDateInDisponibilita(prenotazione);
+        List<Lock> locks = bloccaAbitazioni(id, prenotazione.getAbitazioneId());
+        if (locks == null) {
+            throw new NotFoundException("Prenotazione non trovata");
+        }
         try {
-            if (prenotazioneDAO.findById(id) == null) {
-                throw new NotFoundException("Prenotazione non trovata");
+            Prenotazione prima = prenotazioneDAO.update(prenotazione);
+            if (prima != null) {
+                CacheEntita.PRENOTAZIONI.invalidate(id);
+                EventiDominio.notifica(l -> l.prenotazioneAggiornata(prima, prenotazione));
+                VersioniTabelle.incrementa(Tabella.PRENOTAZIONE);
+                return prenotazione;
             }
-            boolean ok = prenotazioneDAO.update(prenotazione);
-            if (ok) return prenotazione;
         } catch (SQLException e) {
-            throw new DataAccessException("Errore aggiornamento prenotazione", e);
+            throw erroreScrittura(e, "Errore aggiornamento prenotazione");
+        } finally {
+            sblocca(locks);
         }
         throw new NotFoundException("Prenotazione non trovata");
     }
 
     public boolean delete(Integer id) {
+        List<Lock> locks = bloccaAbitazioni(id, null);
+        if (locks == null) {
+            return false;
+        }
         try {
-            if (prenotazioneDAO.findById(id) == null) {
-                throw new NotFoundException("Prenotazione non trovata");
+            Prenotazione eliminata = prenotazioneDAO.delete(id);
+            if (eliminata == null) {
+                return false;
             }
-            return prenotazioneDAO.delete(id);
+            CacheEntita.PRENOTAZIONI.invalidate(id);
+            CacheEntita.FEEDBACK.invalidateIf(f -> f.getPrenotazioneId().equals(id));
+            EventiDominio.notifica(l -> l.prenotazioneEliminata(eliminata));
+            VersioniTabelle.incrementa(Tabella.PRENOTAZIONE, Tabella.FEEDBACK);
+            return true;
         } catch (SQLException e) {
             throw new DataAccessException("Errore eliminazione prenotazione", e);
+        } finally {
+            sblocca(locks);
+        }
+    }
+
+    private List<Lock> bloccaAbitazioni(Integer id, Integer nuovaAbitazioneId) {
+        try {
+            Integer attuale = prenotazioneDAO.findAbitazioneId(id);
+            while (attuale != null) {
+                List<Lock> locks = LOCK_ABITAZIONI.getAll(nuovaAbitazioneId == null
+                        ? List.of(attuale) : List.of(attuale, nuovaAbitazioneId));
+                locks.forEach(Lock::lock);
+                Integer ricontrollo;
+                try {
+                    ricontrollo = prenotazioneDAO.findAbitazioneId(id);
+                } catch (SQLException | RuntimeException e) {
+                    sblocca(locks);
+                    throw e;
+                }
+                if (attuale.equals(ricontrollo)) {
+                    return locks;
+                }
+                sblocca(locks);
+                attuale = ricontrollo;
+            }
+            return null;
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore lettura abitazione della prenotazione", e);
+        }
+    }
+
+    private static void sblocca(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private RuntimeException erroreScrittura(SQLException e, String messaggio) {
+        if (SqlStateUtil.isExclusionViolation(e)) {
+            return new ConflictException(DATE_OCCUPATE);
+        }
+        if (SqlStateUtil.isForeignKeyViolation(e)) {
+            if ("fk_prenotazione_utente".equals(SqlStateUtil.constraintName(e))) {
+                return new ValidationException("Utente non trovato");
+            }
+            return new ValidationException("Abitazione non trovata");
         }
+        return new DataAccessException(messaggio, e);
     }
 }
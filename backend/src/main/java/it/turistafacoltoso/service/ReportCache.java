@@ -0,0 +1,181 @@
+package it.turistafacoltoso.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Prenotazione;
+import it.turistafacoltoso.model.Utente;
+import it.turistafacoltoso.util.AppConfig;
+
+public class ReportCache implements DominioListener {
+
+    public enum Report {
+        SUPER_HOST("super-host", 600_000),
+        TOP_HOST_MESE("top-prenotazioni", 60_000),
+        ABITAZIONE_GETTONATA("piu-gettonata", 60_000),
+        TOP_UTENTI_GIORNI("top-giorni", 60_000);
+
+        private final String nome;
+        private final long ttlPredefinitoMs;
+
+        Report(String nome, long ttlPredefinitoMs) {
+            this.nome = nome;
+            this.ttlPredefinitoMs = ttlPredefinitoMs;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+    }
+
+    private static final Report[] PRENOTAZIONI = { Report.SUPER_HOST, Report.TOP_HOST_MESE,
+            Report.ABITAZIONE_GETTONATA, Report.TOP_UTENTI_GIORNI };
+
+    private static final ReportCache INSTANCE = new ReportCache();
+
+    private final boolean enabled = AppConfig.getBoolean("report.cache.enabled", true);
+    private final Map<Report, Statistiche> statistiche = new EnumMap<>(Report.class);
+    private final Map<Report, Voce> voci = new ConcurrentHashMap<>();
+
+    private ReportCache() {
+        for (Report report : Report.values()) {
+            long ttl = AppConfig.getLong("report.cache." + report.nome + ".ttlMs", report.ttlPredefinitoMs);
+            statistiche.put(report, new Statistiche(ttl));
+        }
+    }
+
+    public static ReportCache getInstance() {
+        return INSTANCE;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Report report, Supplier<T> loader) {
+        Statistiche stat = statistiche.get(report);
+        if (!enabled || stat.ttlMs <= 0) {
+            return loader.get();
+        }
+        Voce voce = voci.get(report);
+        long now = System.currentTimeMillis();
+        if (voce != null && voce.scadenza > now) {
+            stat.hit.incrementAndGet();
+            return (T) voce.valore;
+        }
+        stat.miss.incrementAndGet();
+        long generazione = stat.generazione.get();
+        T valore = loader.get();
+        if (stat.generazione.get() == generazione) {
+            voci.put(report, new Voce(valore, now + stat.ttlMs));
+        }
+        return valore;
+    }
+
+    public void invalida(Report... reports) {
+        for (Report report : reports) {
+            Statistiche stat = statistiche.get(report);
+            stat.generazione.incrementAndGet();
+            if (voci.remove(report) != null) {
+                stat.invalidazioni.incrementAndGet();
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistiche() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long hitTotali = 0;
+        long missTotali = 0;
+        for (Report report : Report.values()) {
+            Statistiche stat = statistiche.get(report);
+            long hit = stat.hit.get();
+            long miss = stat.miss.get();
+            hitTotali += hit;
+            missTotali += miss;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("ttlMs", stat.ttlMs);
+            m.put("hit", hit);
+            m.put("miss", miss);
+            m.put("invalidazioni", stat.invalidazioni.get());
+            m.put("hitRatio", hitRatio(hit, miss));
+            result.put(report.nome, m);
+        }
+        result.put("hitRatio", hitRatio(hitTotali, missTotali));
+        return result;
+    }
+
+    @Override
+    public void prenotazioneCreata(Prenotazione prenotazione) {
+        invalida(PRENOTAZIONI);
+    }
+
+    @Override
+    public void prenotazioneAggiornata(Prenotazione prima, Prenotazione dopo) {
+        invalida(PRENOTAZIONI);
+    }
+
+    @Override
+    public void prenotazioneEliminata(Prenotazione prenotazione) {
+        invalida(PRENOTAZIONI);
+    }
+
+    @Override
+    public void abitazioneAggiornata(Abitazione prima, Abitazione dopo) {
+        invalida(Report.ABITAZIONE_GETTONATA);
+        if (!prima.getHostId().equals(dopo.getHostId())) {
+            invalida(Report.SUPER_HOST, Report.TOP_HOST_MESE);
+        }
+    }
+
+    @Override
+    public void abitazioneEliminata(Abitazione abitazione) {
+        invalida(Report.ABITAZIONE_GETTONATA);
+    }
+
+    @Override
+    public void utenteAggiornato(Utente utente) {
+        invalida(Report.SUPER_HOST, Report.TOP_HOST_MESE, Report.TOP_UTENTI_GIORNI);
+    }
+
+    @Override
+    public void utenteEliminato(Integer id) {
+        invalida(Report.values());
+    }
+
+    @Override
+    public void datiImportati(Tabella tabella) {
+        invalida(Report.values());
+    }
+
+    private static double hitRatio(long hit, long miss) {
+        long totale = hit + miss;
+        return totale == 0 ? 0.0 : (double) hit / totale;
+    }
+
+    private static final class Voce {
+
+        private final Object valore;
+        private final long scadenza;
+
+        private Voce(Object valore, long scadenza) {
+            this.valore = valore;
+            this.scadenza = scadenza;
+        }
+    }
+
+    private static final class Statistiche {
+
+        private final long ttlMs;
+        private final AtomicLong hit = new AtomicLong();
+        private final AtomicLong miss = new AtomicLong();
+        private final AtomicLong invalidazioni = new AtomicLong();
+        private final AtomicLong generazione = new AtomicLong();
+
+        private Statistiche(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+}
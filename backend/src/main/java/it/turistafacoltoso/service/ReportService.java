@@ -0,0 +1,66 @@
+package it.turistafacoltoso.service;
+
+import it.turistafacoltoso.dao.HostDAO;
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.exception.DataAccessException;
+import it.turistafacoltoso.exception.ValidationException;
+import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.ReportTop;
+import it.turistafacoltoso.model.VoceTop;
+import it.turistafacoltoso.service.ClassificheTop.Entita;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReportService {
+
+    private static final int K_PREDEFINITO = 10;
+    private static final int FINESTRA_PREDEFINITA = 30;
+
+    private final HostDAO hostDAO = new HostDAO();
+    private final ClassificheTop classifiche = ClassificheTop.getInstance();
+
+    public ReportTop getTop(String entity, Integer window, Integer k, String citta) {
+        Entita entita = entity == null || entity.isBlank() ? Entita.ABITAZIONE : Entita.daNome(entity.trim());
+        if (entita == null) {
+            throw new ValidationException("Parametro entity non valido: " + entity + " (valori ammessi: abitazione, host)");
+        }
+        int finestra = window == null ? FINESTRA_PREDEFINITA : window;
+        if (finestra < 1 || finestra > ClassificheTop.FINESTRA_MASSIMA) {
+            throw new ValidationException("Il parametro window deve essere compreso tra 1 e " + ClassificheTop.FINESTRA_MASSIMA);
+        }
+        int limite = k == null ? K_PREDEFINITO : k;
+        if (limite < 1 || limite > classifiche.getCapacita()) {
+            throw new ValidationException("Il parametro k deve essere compreso tra 1 e " + classifiche.getCapacita());
+        }
+        String filtroCitta = citta == null || citta.isBlank() ? null : citta.trim();
+
+        String parametri = entita.getNome() + "," + finestra + "," + filtroCitta + "," + limite;
+        return SingleFlight.esegui("report.top", parametri, () -> {
+            ReportTop report = classifiche.classifica(entita, finestra, filtroCitta, limite);
+            if (entita == Entita.HOST && !report.getVoci().isEmpty()) {
+                aggiungiNomiHost(report.getVoci());
+            }
+            return report;
+        }, Tabella.PRENOTAZIONE, Tabella.ABITAZIONE, Tabella.HOST, Tabella.UTENTE);
+    }
+
+    private void aggiungiNomiHost(List<VoceTop> voci) {
+        try {
+            Map<Integer, Host> hosts = new HashMap<>();
+            for (Host host : hostDAO.findByIds(voci.stream().map(VoceTop::getId).toList())) {
+                hosts.put(host.getId(), host);
+            }
+            for (VoceTop voce : voci) {
+                Host host = hosts.get(voce.getId());
+                if (host != null) {
+                    voce.setNome(host.getNome() + " " + host.getCognome());
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Errore report top host", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package it.turistafacoltoso.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.util.AppConfig;
+
+public final class SingleFlight {
+
+    private static final boolean enabled = AppConfig.getBoolean("singleflight.enabled", true);
+
+    private static final Map<String, CompletableFuture<Object>> inVolo = new ConcurrentHashMap<>();
+    private static final Map<String, Contatori> contatori = new ConcurrentHashMap<>();
+
+    private SingleFlight() {}
+
+    static <T> T esegui(String nome, Supplier<T> chiamata, Tabella... tabelle) {
+        return esegui(nome, "", chiamata, tabelle);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T esegui(String nome, String parametri, Supplier<T> chiamata, Tabella... tabelle) {
+        if (!enabled) {
+            return chiamata.get();
+        }
+        Contatori c = contatori.computeIfAbsent(nome, n -> new Contatori());
+        String chiave = nome + '|' + parametri + '|' + VersioniTabelle.etag(tabelle);
+        CompletableFuture<Object> nuovo = new CompletableFuture<>();
+        CompletableFuture<Object> esistente = inVolo.putIfAbsent(chiave, nuovo);
+        if (esistente != null) {
+            c.collassate.incrementAndGet();
+            return (T) attendi(esistente);
+        }
+        c.esecuzioni.incrementAndGet();
+        try {
+            T risultato = condivisibile(chiamata.get());
+            nuovo.complete(risultato);
+            return risultato;
+        } catch (RuntimeException | Error e) {
+            nuovo.completeExceptionally(e);
+            throw e;
+        } finally {
+            inVolo.remove(chiave, nuovo);
+        }
+    }
+
+    // Il risultato arriva a tutte le chiamate collassate: le liste diventano immutabili.
+    @SuppressWarnings("unchecked")
+    private static <T> T condivisibile(T risultato) {
+        return risultato instanceof List<?> lista ? (T) List.copyOf(lista) : risultato;
+    }
+
+    private static Object attendi(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+
+    public static Map<String, Object> getStatistiche() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long esecuzioniTotali = 0;
+        long collassateTotali = 0;
+        Map<String, Object> perChiamata = new TreeMap<>();
+        for (Map.Entry<String, Contatori> entry : contatori.entrySet()) {
+            long esecuzioni = entry.getValue().esecuzioni.get();
+            long collassate = entry.getValue().collassate.get();
+            esecuzioniTotali += esecuzioni;
+            collassateTotali += collassate;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("esecuzioni", esecuzioni);
+            m.put("collassate", collassate);
+            perChiamata.put(entry.getKey(), m);
+        }
+        result.put("attivo", enabled);
+        result.put("inVolo", inVolo.size());
+        result.put("esecuzioni", esecuzioniTotali);
+        result.put("collassate", collassateTotali);
+        result.put("chiamate", perChiamata);
+        return result;
+    }
+
+    private static final class Contatori {
+
+        private final AtomicLong esecuzioni = new AtomicLong();
+        private final AtomicLong collassate = new AtomicLong();
+    }
+}
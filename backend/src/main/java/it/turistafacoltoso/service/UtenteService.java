@@ -1,55 +1,112 @@
 package it.turistafacoltoso.service;
 
+import it.turistafacoltoso.dao.Tabella;
 import it.turistafacoltoso.dao.UtenteDAO;
 import it.turistafacoltoso.dao.UtenteDAOImpl;
 import it.turistafacoltoso.exception.DataAccessException;
 import it.turistafacoltoso.exception.NotFoundException;
+import it.turistafacoltoso.exception.ValidationException;
+import it.turistafacoltoso.model.Pagina;
+import it.turistafacoltoso.model.RichiestaPagina;
 import it.turistafacoltoso.model.Utente;
+import it.turistafacoltoso.service.ReportCache.Report;
+import it.turistafacoltoso.util.SqlStateUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class UtenteService {
 
+    private static final String EMAIL_DUPLICATA = "Email già esistente. Scegli un'altra email.";
+
     private final UtenteDAO utenteDAO = new UtenteDAOImpl();
+    private final ReportCache reportCache = ReportCache.getInstance();
 
     public List<Utente> findAll() {
-        return utenteDAO.findAll();
+        return SingleFlight.esegui("utente.findAll", utenteDAO::findAll, Tabella.UTENTE);
+    }
+
+    public Pagina<Utente> findPagina(RichiestaPagina richiesta) {
+        return utenteDAO.findPagina(richiesta);
     }
 
     public Utente findById(Integer id) {
-        return utenteDAO.findById(id);
+        return CacheEntita.UTENTI.get(id, utenteDAO::findById);
+    }
+
+    public Map<Integer, Utente> findByIds(Collection<Integer> ids) {
+        return utenteDAO.findByIds(ids);
     }
 
     public Utente create(Utente utente) {
-        if (utenteDAO.findByEmail(utente.getEmail()) != null) {
-            throw new DataAccessException("Email già esistente. Scegli un'altra email.");
+        Utente created = utenteDAO.insert(utente);
+        if (created == null) {
+            throw new DataAccessException(EMAIL_DUPLICATA);
         }
-        return utenteDAO.insert(utente);
+        EventiDominio.notifica(l -> l.utenteCreato(created));
+        VersioniTabelle.incrementa(Tabella.UTENTE);
+        return created;
     }
 
     public Utente update(Integer id, Utente utente) {
         utente.setId(id);
-        Utente existingWithEmail = utenteDAO.findByEmail(utente.getEmail());
-        if (existingWithEmail != null && !existingWithEmail.getId().equals(id)) {
-            throw new DataAccessException("Email già esistente. Scegli un'altra email.");
-        }
-        if (utenteDAO.findById(id) == null) {
-            throw new NotFoundException("Utente non trovato");
-        }
-        if (Boolean.TRUE.equals(utenteDAO.update(utente))) {
-            return utente;
+        try {
+            if (utenteDAO.update(utente)) {
+                CacheEntita.invalidaUtente(id);
+                EventiDominio.notifica(l -> l.utenteAggiornato(utente));
+                VersioniTabelle.incrementa(Tabella.UTENTE);
+                return utente;
+            }
+        } catch (DataAccessException e) {
+            if (SqlStateUtil.isUniqueViolation(e)) {
+                throw new DataAccessException(EMAIL_DUPLICATA, e);
+            }
+            throw e;
         }
         throw new NotFoundException("Utente non trovato");
     }
 
     public boolean delete(Integer id) {
-        if (utenteDAO.findById(id) == null) {
-            throw new NotFoundException("Utente non trovato");
+        FiltroCodiciHost filtro = FiltroCodiciHost.getInstance();
+        filtro.bloccaScritture();
+        try {
+            if (!utenteDAO.delete(id)) {
+                return false;
+            }
+            filtro.scritturaPropria(null);
+            CacheEntita.utenteEliminato(id);
+            EventiDominio.notifica(l -> l.utenteEliminato(id));
+            VersioniTabelle.incrementa(Tabella.UTENTE, Tabella.HOST, Tabella.ABITAZIONE);
+            return true;
+        } catch (DataAccessException e) {
+            if (SqlStateUtil.isForeignKeyViolation(e)) {
+                throw new ValidationException("Impossibile eliminare l'utente: esistono prenotazioni a suo nome.");
+            }
+            throw e;
+        } finally {
+            filtro.sbloccaScritture();
         }
-        return utenteDAO.delete(id);
     }
 
     public List<Utente> findTop5UtentiPiuGiorniUltimoMese() {
-        return utenteDAO.findTop5UtentiPiuGiorniUltimoMese();
+        return reportCache.get(Report.TOP_UTENTI_GIORNI, () -> SingleFlight.esegui("utente.topGiorniMese",
+                this::caricaTop5UtentiPiuGiorniUltimoMese, Tabella.UTENTE, Tabella.PRENOTAZIONE));
+    }
+
+    private List<Utente> caricaTop5UtentiPiuGiorniUltimoMese() {
+        List<Integer> ids = FinestraUltimoMese.getInstance().getUtentiPerGiorni(5);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Utente> perId = utenteDAO.findByIds(ids);
+        List<Utente> utenti = new ArrayList<>();
+        for (Integer id : ids) {
+            if (perId.containsKey(id)) {
+                utenti.add(perId.get(id));
+            }
+        }
+        return utenti;
     }
 }
@@ -0,0 +1,114 @@
+package it.turistafacoltoso.service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.dao.Tabella;
+import it.turistafacoltoso.dao.VersioniDAO;
+
+public final class VersioniTabelle {
+
+    private static final Logger log = LoggerFactory.getLogger(VersioniTabelle.class);
+
+    private static final String AVVIO = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final AtomicLongArray versioni = new AtomicLongArray(Tabella.values().length);
+
+    private static final VersioniDAO versioniDAO = new VersioniDAO();
+    private static final AtomicLongArray database = new AtomicLongArray(Tabella.values().length);
+    private static final boolean[] daRibadire = new boolean[Tabella.values().length];
+    private static ScheduledExecutorService sincronizzatore;
+    private static volatile long intervalloMs;
+
+    private VersioniTabelle() {}
+
+    public static long get(Tabella tabella) {
+        return versioni.get(tabella.ordinal());
+    }
+
+    public static long getDatabase(Tabella tabella) {
+        return database.get(tabella.ordinal());
+    }
+
+    public static synchronized boolean isSincronizzato() {
+        return sincronizzatore != null;
+    }
+
+    public static long getIntervalloMs() {
+        return intervalloMs;
+    }
+
+    static void incrementa(Tabella... tabelle) {
+        for (Tabella tabella : tabelle) {
+            versioni.incrementAndGet(tabella.ordinal());
+        }
+    }
+
+    public static synchronized void avvia(long intervalloMs) {
+        if (sincronizzatore != null || intervalloMs <= 0) {
+            return;
+        }
+        try {
+            aggiornaDatabase(versioniDAO.findVersioni());
+        } catch (SQLException e) {
+            log.warn("Contatori di scrittura non disponibili, versioni solo in-process: {}", e.getMessage());
+            return;
+        }
+        sincronizzatore = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "versioni-tabelle");
+            t.setDaemon(true);
+            return t;
+        });
+        sincronizzatore.scheduleWithFixedDelay(VersioniTabelle::sincronizza, intervalloMs, intervalloMs,
+                TimeUnit.MILLISECONDS);
+        VersioniTabelle.intervalloMs = intervalloMs;
+    }
+
+    // Il trigger avanza il contatore prima del commit: una lettura fatta in quell'intervallo potrebbe finire in
+    // cache con la versione nuova, quindi la versione viene incrementata di nuovo al giro successivo.
+    private static void sincronizza() {
+        long[] lette;
+        try {
+            lette = versioniDAO.findVersioni();
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Lettura contatori di scrittura fallita: {}", e.getMessage());
+            return;
+        }
+        for (int i = 0; i < lette.length; i++) {
+            boolean cambiata = lette[i] != database.get(i);
+            if (cambiata || daRibadire[i]) {
+                versioni.incrementAndGet(i);
+            }
+            daRibadire[i] = cambiata;
+        }
+        aggiornaDatabase(lette);
+    }
+
+    private static void aggiornaDatabase(long[] lette) {
+        for (int i = 0; i < lette.length; i++) {
+            database.set(i, lette[i]);
+        }
+    }
+
+    public static String etag(Tabella... tabelle) {
+        return etag(null, tabelle);
+    }
+
+    public static String etag(LocalDate giorno, Tabella... tabelle) {
+        StringBuilder sb = new StringBuilder("\"").append(AVVIO);
+        for (Tabella tabella : tabelle) {
+            sb.append('-').append(Long.toString(get(tabella), 36));
+        }
+        if (giorno != null) {
+            sb.append('-').append(giorno.toEpochDay());
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,398 @@
+package it.turistafacoltoso.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private static final Pattern DATA_MODIFYING = Pattern.compile("\\b(INSERT|UPDATE|DELETE|MERGE)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final String name;
+    private final String url;
+    private final String user;
+    private final String pwd;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long maxWaitMs;
+    private final long idleTimeoutMs;
+    private final long leakDetectionThresholdMs;
+    private final long validationIdleMs;
+    private final int validationTimeoutSec;
+    private final int statementCacheSize;
+    private final int prepareThreshold;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String name, String url, String user, String pwd, String configPrefix) {
+        this.name = name;
+        this.url = url;
+        this.user = user;
+        this.pwd = pwd;
+        this.minSize = AppConfig.getInt(configPrefix + ".minSize", 2);
+        this.maxSize = Math.max(AppConfig.getInt(configPrefix + ".maxSize", 10), Math.max(minSize, 1));
+        this.maxWaitMs = AppConfig.getLong(configPrefix + ".maxWaitMs", 5000);
+        this.idleTimeoutMs = AppConfig.getLong(configPrefix + ".idleTimeoutMs", 600_000);
+        this.leakDetectionThresholdMs = AppConfig.getLong(configPrefix + ".leakDetectionThresholdMs", 60_000);
+        this.validationIdleMs = AppConfig.getLong(configPrefix + ".validationIdleMs", 500);
+        this.validationTimeoutSec = AppConfig.getInt(configPrefix + ".validationTimeoutSec", 2);
+        this.statementCacheSize = AppConfig.getInt("db.statementCache.size", 64);
+        this.prepareThreshold = AppConfig.getInt("db.statementCache.prepareThreshold", 1);
+        this.permits = new Semaphore(maxSize, true);
+
+        long housekeepingMs = AppConfig.getLong(configPrefix + ".housekeepingIntervalMs", 30_000);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-housekeeper-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, housekeepingMs, housekeepingMs, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+        log.info("Connection pool '{}' started (min={}, max={}, maxWaitMs={})", name, minSize, maxSize, maxWaitMs);
+    }
+
+    public Connection getConnection() throws SQLException {
+        return getConnection(null);
+    }
+
+    public Connection getConnection(Runnable onWriteCommit) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Connection pool '" + name + "': no connection available within " + maxWaitMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pc = takeValidConnection();
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowTrace = leakDetectionThresholdMs > 0 ? new Exception("Connection borrowed here") : null;
+            pc.leakReported = false;
+            inUse.add(pc);
+            return pc.newProxy(onWriteCommit);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidConnection() throws SQLException {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - pc.lastUsedAt < validationIdleMs || isValid(pc)) {
+                return pc;
+            }
+            destroy(pc);
+        }
+        return createConnection();
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return pc.physical.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, pwd);
+        created.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pc) {
+        inUse.remove(pc);
+        try {
+            if (closed || pc.physical.isClosed()) {
+                destroy(pc);
+                return;
+            }
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            if (pc.physical.isReadOnly()) {
+                pc.physical.setReadOnly(false);
+            }
+            pc.physical.clearWarnings();
+            pc.lastUsedAt = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } catch (SQLException e) {
+            log.warn("Connection pool '{}': discarding connection that failed reset: {}", name, e.getMessage());
+            destroy(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        destroyed.incrementAndGet();
+        try {
+            pc.physical.close();
+        } catch (SQLException e) {
+            log.debug("Connection pool '{}': error closing connection: {}", name, e.getMessage());
+        }
+    }
+
+    private void housekeeping() {
+        try {
+            long now = System.currentTimeMillis();
+
+            for (PooledConnection pc : idle) {
+                if (idle.size() + inUse.size() <= minSize) {
+                    break;
+                }
+                if (now - pc.lastUsedAt > idleTimeoutMs && idle.remove(pc)) {
+                    destroy(pc);
+                }
+            }
+
+            if (leakDetectionThresholdMs > 0) {
+                for (PooledConnection pc : inUse) {
+                    if (!pc.leakReported && now - pc.borrowedAt > leakDetectionThresholdMs) {
+                        pc.leakReported = true;
+                        leaksDetected.incrementAndGet();
+                        log.warn("Connection pool '{}': possible connection leak, held for {} ms",
+                                name, now - pc.borrowedAt, pc.borrowTrace);
+                    }
+                }
+            }
+
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            log.error("Connection pool '{}': housekeeping failed: {}", name, e.getMessage(), e);
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && idle.size() + inUse.size() < minSize) {
+            try {
+                PooledConnection pc = createConnection();
+                pc.lastUsedAt = System.currentTimeMillis();
+                idle.offerLast(pc);
+            } catch (SQLException e) {
+                log.warn("Connection pool '{}': cannot open connection: {}", name, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+        log.info("Connection pool '{}' closed", name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActiveConnections() {
+        return inUse.size();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getTotalConnections() {
+        return idle.size() + inUse.size();
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+
+    public long getCreatedConnections() {
+        return created.get();
+    }
+
+    public long getDestroyedConnections() {
+        return destroyed.get();
+    }
+
+    private final class PooledConnection {
+
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastUsedAt;
+        private volatile long borrowedAt;
+        private volatile Exception borrowTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0
+                    ? new StatementCache(physical, statementCacheSize, prepareThreshold)
+                    : null;
+        }
+
+        private Connection newProxy(Runnable onWriteCommit) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new ConnectionHandler(this, onWriteCommit));
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final PooledConnection pc;
+        private final Runnable onWriteCommit;
+        private boolean returned = false;
+        private boolean pendingWrite = false;
+
+        private ConnectionHandler(PooledConnection pc, Runnable onWriteCommit) {
+            this.pc = pc;
+            this.onWriteCommit = onWriteCommit;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        boolean committed = pendingWrite && !pc.physical.isClosed() && pc.physical.getAutoCommit();
+                        release(pc);
+                        if (committed) {
+                            writeCommitted();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.physical.isClosed();
+                case "prepareStatement":
+                    if (!returned && isWrite((String) args[0])) {
+                        pendingWrite = true;
+                    }
+                    if (!returned && pc.statementCache != null && args.length == 1) {
+                        return pc.statementCache.prepare((String) args[0], (Connection) proxy);
+                    }
+                    break;
+                case "prepareCall":
+                case "createStatement":
+                    if (!returned) {
+                        pendingWrite = true;
+                    }
+                    break;
+                case "commit":
+                    if (!returned) {
+                        pc.physical.commit();
+                        writeCommitted();
+                        return null;
+                    }
+                    break;
+                case "rollback":
+                    if (!returned && args == null) {
+                        pc.physical.rollback();
+                        if (!pc.physical.getAutoCommit()) {
+                            pendingWrite = false;
+                        }
+                        return null;
+                    }
+                    break;
+                case "setAutoCommit":
+                    if (!returned) {
+                        boolean wasAutoCommit = pc.physical.getAutoCommit();
+                        pc.physical.setAutoCommit((Boolean) args[0]);
+                        if (!wasAutoCommit && (Boolean) args[0]) {
+                            writeCommitted();
+                        }
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to pool '" + name + "'");
+            }
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void writeCommitted() {
+            if (pendingWrite) {
+                pendingWrite = false;
+                if (onWriteCommit != null) {
+                    onWriteCommit.run();
+                }
+            }
+        }
+    }
+
+    static boolean isWrite(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return switch (trimmed.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "SELECT", "SHOW", "VALUES", "EXPLAIN", "TABLE" -> false;
+            case "WITH" -> DATA_MODIFYING.matcher(trimmed).find();
+            default -> true;
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package it.turistafacoltoso.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import it.turistafacoltoso.exception.ValidationException;
+
+public class Cursore {
+
+    private static final String VERSIONE = "v1";
+
+    private final String sort;
+    private final boolean desc;
+    private final int id;
+    private final String valore;
+
+    public Cursore(String sort, boolean desc, int id, String valore) {
+        this.sort = sort;
+        this.desc = desc;
+        this.id = id;
+        this.valore = valore;
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSIONE, sort, desc ? "d" : "a", String.valueOf(id), valore);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursore decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSIONE.equals(parts[0])) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new Cursore(parts[1], "d".equals(parts[2]), Integer.parseInt(parts[3]), parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Cursore non valido");
+        }
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public boolean isDesc() {
+        return desc;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getValore() {
+        return valore;
+    }
+}
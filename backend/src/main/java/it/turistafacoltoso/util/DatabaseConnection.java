@@ -1,20 +1,24 @@
 package it.turistafacoltoso.util;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DatabaseConnection {
 
-    private static String url;
-    private static String user;
-    private static String pwd;
+    private static ConnectionPool pool;
+    private static List<ConnectionPool> replicas = Collections.emptyList();
+    private static boolean leastBusy = false;
+    private static long readYourWritesMs;
+    private static final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+    private static final AtomicInteger nextReplica = new AtomicInteger();
     private static boolean initialized = false;
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseConnection.class);
@@ -23,17 +27,17 @@ public class DatabaseConnection {
     }
 
     public static void init(String configPath) {
-        Properties props = new Properties();
-
-        try (FileInputStream fis = new FileInputStream(configPath)) {
-            props.load(fis);
+        try {
+            AppConfig.load(configPath);
+            Class.forName("org.postgresql.Driver");
 
-            url = props.getProperty("db.url");
-            user = props.getProperty("db.user");
-            pwd = props.getProperty("db.pwd");
+            String url = AppConfig.getString("db.url", null);
+            String user = AppConfig.getString("db.user", null);
+            String pwd = AppConfig.getString("db.pwd", null);
 
+            pool = new ConnectionPool("primary", url, user, pwd, "db.pool");
+            replicas = initReplicas(user, pwd);
             initialized = true;
-            Class.forName("org.postgresql.Driver");
 
         } catch (IOException | ClassNotFoundException e) {
             log.error("Error initializing DatabaseConnection with config {}: {}", configPath, e.getMessage(), e);
@@ -41,13 +45,106 @@ public class DatabaseConnection {
         }
     }
 
+    private static List<ConnectionPool> initReplicas(String primaryUser, String primaryPwd) {
+        String urls = AppConfig.getString("db.replica.urls", "");
+        String user = AppConfig.getString("db.replica.user", primaryUser);
+        String pwd = AppConfig.getString("db.replica.pwd", primaryPwd);
+        leastBusy = "least-busy".equalsIgnoreCase(AppConfig.getString("db.replica.selection", "round-robin"));
+        readYourWritesMs = AppConfig.getLong("db.replica.readYourWritesMs", 2000);
+
+        List<ConnectionPool> result = new ArrayList<>();
+        for (String replicaUrl : urls.split(",")) {
+            if (!replicaUrl.isBlank()) {
+                result.add(new ConnectionPool("replica-" + (result.size() + 1), replicaUrl.trim(), user, pwd, "db.replica.pool"));
+            }
+        }
+        if (!result.isEmpty()) {
+            log.info("Read replicas configured: {} (selection={}, readYourWritesMs={})",
+                    result.size(), leastBusy ? "least-busy" : "round-robin", readYourWritesMs);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
     public static Connection getConnection() throws SQLException {
 
         if (!initialized) {
             throw new RuntimeException("Execute init() first!");
         }
 
-        return DriverManager.getConnection(url, user, pwd);
+        return pool.getConnection(DatabaseConnection::markWrite);
+
+    }
+
+    public static Connection getReadConnection() throws SQLException {
+
+        if (!initialized) {
+            throw new RuntimeException("Execute init() first!");
+        }
+
+        Long lastWriteAt = lastWrite.get();
+        if (replicas.isEmpty() || (lastWriteAt != null && System.currentTimeMillis() - lastWriteAt < readYourWritesMs)) {
+            return pool.getConnection();
+        }
+
+        ConnectionPool replica = selectReplica();
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica {} unavailable, falling back to primary: {}", replica.getName(), e.getMessage());
+            return pool.getConnection();
+        }
+    }
+
+    private static ConnectionPool selectReplica() {
+        if (!leastBusy) {
+            return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+        }
+        ConnectionPool best = replicas.get(0);
+        for (ConnectionPool replica : replicas) {
+            if (load(replica) < load(best)) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    private static int load(ConnectionPool replica) {
+        return replica.getActiveConnections() + replica.getThreadsAwaitingConnection();
+    }
+
+    private static void markWrite() {
+        lastWrite.set(System.currentTimeMillis());
+    }
+
+    public static Long getLastWrite() {
+        return lastWrite.get();
+    }
+
+    public static void setLastWrite(Long timestamp) {
+        if (timestamp == null) {
+            lastWrite.remove();
+        } else {
+            lastWrite.set(timestamp);
+        }
+    }
+
+    public static long getReadYourWritesMs() {
+        return readYourWritesMs;
+    }
+
+    public static ConnectionPool getPool() {
+        return pool;
+    }
 
+    public static List<ConnectionPool> getReplicas() {
+        return replicas;
+    }
+
+    public static void shutdown() {
+        if (initialized) {
+            initialized = false;
+            pool.close();
+            replicas.forEach(ConnectionPool::close);
+        }
     }
 }
@@ -0,0 +1,77 @@
+package it.turistafacoltoso.util;
+
+public final class DayBitmap {
+
+    public static final DayBitmap EMPTY = new DayBitmap(0, new long[0]);
+
+    private final int firstWord;
+    private final long[] words;
+
+    private DayBitmap(int firstWord, long[] words) {
+        this.firstWord = firstWord;
+        this.words = words;
+    }
+
+    public DayBitmap with(int fromDay, int toDay) {
+        if (toDay <= fromDay) {
+            return this;
+        }
+        int lo = Math.floorDiv(fromDay, 64);
+        int hi = Math.floorDiv(toDay - 1, 64);
+        int newFirst = words.length == 0 ? lo : Math.min(firstWord, lo);
+        int newLast = words.length == 0 ? hi : Math.max(firstWord + words.length - 1, hi);
+        long[] copy = new long[newLast - newFirst + 1];
+        if (words.length > 0) {
+            System.arraycopy(words, 0, copy, firstWord - newFirst, words.length);
+        }
+        apply(copy, newFirst, fromDay, toDay, true);
+        return new DayBitmap(newFirst, copy);
+    }
+
+    public DayBitmap without(int fromDay, int toDay) {
+        int from = Math.max(fromDay, firstWord * 64);
+        int to = Math.min(toDay, (firstWord + words.length) * 64);
+        if (to <= from) {
+            return this;
+        }
+        long[] copy = words.clone();
+        apply(copy, firstWord, from, to, false);
+        return new DayBitmap(firstWord, copy);
+    }
+
+    public int count(int fromDay, int toDay) {
+        int from = Math.max(fromDay, firstWord * 64);
+        int to = Math.min(toDay, (firstWord + words.length) * 64);
+        if (to <= from) {
+            return 0;
+        }
+        int lo = Math.floorDiv(from, 64);
+        int hi = Math.floorDiv(to - 1, 64);
+        int total = 0;
+        for (int w = lo; w <= hi; w++) {
+            total += Long.bitCount(words[w - firstWord] & mask(w, from, to));
+        }
+        return total;
+    }
+
+    private static void apply(long[] target, int first, int from, int to, boolean set) {
+        int lo = Math.floorDiv(from, 64);
+        int hi = Math.floorDiv(to - 1, 64);
+        for (int w = lo; w <= hi; w++) {
+            long mask = mask(w, from, to);
+            if (set) {
+                target[w - first] |= mask;
+            } else {
+                target[w - first] &= ~mask;
+            }
+        }
+    }
+
+    private static long mask(int word, int from, int to) {
+        int start = Math.max(from - word * 64, 0);
+        int end = Math.min(to - word * 64, 64);
+        long high = end == 64 ? -1L : (1L << end) - 1;
+        long low = (1L << start) - 1;
+        return high & ~low;
+    }
+}
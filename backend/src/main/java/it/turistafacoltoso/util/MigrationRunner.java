@@ -0,0 +1,142 @@
+package it.turistafacoltoso.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MigrationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MigrationRunner.class);
+
+    private static final String LOCATION = "/db/migration/";
+    private static final long ADVISORY_LOCK_KEY = 7_000_001L;
+
+    private static final List<String> SCRIPTS = List.of(
+            "V1__schema_iniziale.sql",
+            "V2__indici_report.sql",
+            "V3__indici_paginazione.sql",
+            "V4__prenotazioni_non_sovrapposte.sql",
+            "V5__versioni_tabelle.sql",
+            "V6__indici_ordinamento.sql"
+    );
+
+    private MigrationRunner() {
+    }
+
+    public static void migrate() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_lock(" + ADVISORY_LOCK_KEY + ")");
+            }
+            try {
+                createVersionTable(conn);
+                Map<Integer, Long> applied = findApplied(conn);
+                for (String script : SCRIPTS) {
+                    apply(conn, script, applied);
+                }
+            } finally {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT pg_advisory_unlock(" + ADVISORY_LOCK_KEY + ")");
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Database migration failed: {}", e.getMessage(), e);
+            throw new RuntimeException("Error: database migration failed", e);
+        }
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS schema_version (
+                versione INTEGER PRIMARY KEY,
+                script VARCHAR(200) NOT NULL,
+                checksum BIGINT NOT NULL,
+                applicata_il TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )
+            """;
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static Map<Integer, Long> findApplied(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        String sql = "SELECT versione, checksum FROM schema_version";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                applied.put(rs.getInt("versione"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection conn, String script, Map<Integer, Long> applied) throws SQLException, IOException {
+        int version = parseVersion(script);
+        String content = readScript(script);
+        long checksum = checksum(content);
+
+        Long appliedChecksum = applied.get(version);
+        if (appliedChecksum != null) {
+            if (appliedChecksum != checksum) {
+                log.warn("Migration {} was modified after being applied (checksum {} != {})", script, appliedChecksum, checksum);
+            }
+            return;
+        }
+
+        log.info("Applying migration {}", script);
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(content);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO schema_version (versione, script, checksum) VALUES (?, ?, ?)")) {
+                ps.setInt(1, version);
+                ps.setString(2, script);
+                ps.setLong(3, checksum);
+                ps.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static int parseVersion(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static String readScript(String script) throws IOException {
+        try (InputStream in = MigrationRunner.class.getResourceAsStream(LOCATION + script)) {
+            if (in == null) {
+                throw new IOException("Migration script not found: " + LOCATION + script);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long checksum(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,103 @@
+package it.turistafacoltoso.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class NdjsonCsvReader extends Reader {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final BufferedReader source;
+    private final List<String> colonne;
+    private final List<String> campi;
+    private final StringBuilder buffer = new StringBuilder();
+    private int position = 0;
+    private long lineNumber = 0;
+    private boolean headerWritten = false;
+
+    public NdjsonCsvReader(Reader source, List<String> colonne, List<String> campi) {
+        this.source = source instanceof BufferedReader br ? br : new BufferedReader(source, 64 * 1024);
+        this.colonne = colonne;
+        this.campi = campi;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        while (position >= buffer.length()) {
+            buffer.setLength(0);
+            position = 0;
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, buffer.length() - position);
+        buffer.getChars(position, position + n, cbuf, off);
+        position += n;
+        return n;
+    }
+
+    private boolean fill() throws IOException {
+        if (!headerWritten) {
+            headerWritten = true;
+            buffer.append(String.join(",", colonne)).append('\n');
+            return true;
+        }
+        String line;
+        do {
+            line = source.readLine();
+            lineNumber++;
+            if (line == null) {
+                return false;
+            }
+        } while (line.isBlank());
+
+        JsonNode node;
+        try {
+            node = mapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IOException("JSON non valido alla riga " + lineNumber + ": " + e.getOriginalMessage(), e);
+        }
+        if (node == null || !node.isObject()) {
+            throw new IOException("JSON non valido alla riga " + lineNumber + ": atteso un oggetto");
+        }
+        for (int i = 0; i < campi.size(); i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            appendValue(node.get(campi.get(i)));
+        }
+        buffer.append('\n');
+        return true;
+    }
+
+    private void appendValue(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return;
+        }
+        if (value.isNumber() || value.isBoolean()) {
+            buffer.append(value.asText());
+            return;
+        }
+        String text = value.isValueNode() ? value.asText() : value.toString();
+        buffer.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -0,0 +1,68 @@
+package it.turistafacoltoso.util;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+public class PinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int FRAMES = 6;
+
+    private static final AtomicLong pinnedEvents = new AtomicLong();
+    private static final AtomicLong pinnedNanos = new AtomicLong();
+    private static RecordingStream stream;
+
+    private PinningMonitor() {
+    }
+
+    public static synchronized void start(Duration threshold) {
+        if (stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, PinningMonitor::onPinned);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+    }
+
+    private static void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+        log.warn("Virtual thread pinned its carrier for {} ms at {}", event.getDuration().toMillis(), frames(event));
+    }
+
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "<no stack trace>";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(FRAMES)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+
+    public static boolean isRunning() {
+        return stream != null;
+    }
+
+    public static long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    public static long getPinnedMillis() {
+        return pinnedNanos.get() / 1_000_000;
+    }
+}
@@ -0,0 +1,112 @@
+package it.turistafacoltoso.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+public class ResponseBodyCache {
+
+    private final long maxBytes;
+    private final int minCompressSize;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResponseBodyCache(long maxBytes, int minCompressSize) {
+        this.maxBytes = maxBytes;
+        this.minCompressSize = minCompressSize;
+    }
+
+    public synchronized Entry get(String key, String version) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version.equals(version)) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        return null;
+    }
+
+    public Entry put(String key, String version, byte[] body) {
+        Entry entry = new Entry(version, body, body.length >= minCompressSize ? gzip(body) : null);
+        if (entry.size() > maxBytes) {
+            return entry;
+        }
+        synchronized (this) {
+            Entry old = entries.put(key, entry);
+            if (old != null) {
+                bytes -= old.size();
+            }
+            bytes += entry.size();
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                Entry eldest = it.next().getValue();
+                it.remove();
+                bytes -= eldest.size();
+                evictions++;
+            }
+        }
+        return entry;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.length / 8, 64));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out, 64 * 1024)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static final class Entry {
+
+        private final String version;
+        private final byte[] body;
+        private final byte[] gzip;
+
+        private Entry(String version, byte[] body, byte[] gzip) {
+            this.version = version;
+            this.body = body;
+            this.gzip = gzip;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        private long size() {
+            return body.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package it.turistafacoltoso.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<Integer, Counter> counters = new HashMap<>();
+    private long total;
+    private long floor;
+    private Bucket min;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+    }
+
+    public void offer(int item) {
+        total++;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            Bucket bucket = counter.bucket;
+            bucket.remove(counter);
+            counter.count++;
+            place(counter, bucket);
+            unlinkIfEmpty(bucket);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter(item, 1, 0);
+            counters.put(item, counter);
+            place(counter, null);
+            return;
+        }
+        Bucket bucket = min;
+        Counter victim = bucket.head;
+        bucket.remove(victim);
+        counters.remove(victim.item);
+        long evicted = victim.count;
+        floor = Math.max(floor, evicted);
+        counter = new Counter(item, evicted + 1, evicted);
+        counters.put(item, counter);
+        place(counter, bucket);
+        unlinkIfEmpty(bucket);
+    }
+
+    private void place(Counter counter, Bucket after) {
+        Bucket prev = after;
+        Bucket next = after == null ? min : after.next;
+        while (next != null && next.count < counter.count) {
+            prev = next;
+            next = next.next;
+        }
+        if (next == null || next.count != counter.count) {
+            Bucket bucket = new Bucket(counter.count);
+            bucket.prev = prev;
+            bucket.next = next;
+            if (prev == null) {
+                min = bucket;
+            } else {
+                prev.next = bucket;
+            }
+            if (next != null) {
+                next.prev = bucket;
+            }
+            next = bucket;
+        }
+        next.add(counter);
+    }
+
+    private void unlinkIfEmpty(Bucket bucket) {
+        if (bucket.head != null) {
+            return;
+        }
+        if (bucket.prev == null) {
+            min = bucket.next;
+        } else {
+            bucket.prev.next = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getFloor() {
+        if (counters.size() < capacity) {
+            return floor;
+        }
+        return Math.max(floor, min.count);
+    }
+
+    public List<Estimate> top(int k) {
+        List<Estimate> estimates = new ArrayList<>(counters.size());
+        counters.forEach((item, counter) -> estimates.add(new Estimate(item, counter.count, counter.error)));
+        estimates.sort((a, b) -> a.count != b.count ? Long.compare(b.count, a.count) : Integer.compare(a.item, b.item));
+        return estimates.size() > k ? new ArrayList<>(estimates.subList(0, k)) : estimates;
+    }
+
+    public static SpaceSaving merge(Collection<SpaceSaving> sketches, int capacity) {
+        SpaceSaving merged = new SpaceSaving(capacity);
+        Set<Integer> items = new HashSet<>();
+        long[] floorOf = new long[sketches.size()];
+        long floors = 0;
+        int i = 0;
+        for (SpaceSaving sketch : sketches) {
+            items.addAll(sketch.counters.keySet());
+            merged.total += sketch.total;
+            floorOf[i] = sketch.getFloor();
+            floors += floorOf[i++];
+        }
+        List<Estimate> all = new ArrayList<>(items.size());
+        for (Integer item : items) {
+            long count = 0;
+            long error = 0;
+            i = 0;
+            for (SpaceSaving sketch : sketches) {
+                Counter counter = sketch.counters.get(item);
+                if (counter != null) {
+                    count += counter.count;
+                    error += counter.error;
+                } else {
+                    count += floorOf[i];
+                    error += floorOf[i];
+                }
+                i++;
+            }
+            all.add(new Estimate(item, count, error));
+        }
+        all.sort((a, b) -> a.count != b.count ? Long.compare(b.count, a.count) : Integer.compare(a.item, b.item));
+        merged.floor = floors;
+        for (int j = 0; j < all.size(); j++) {
+            Estimate e = all.get(j);
+            if (j < merged.capacity) {
+                Counter counter = new Counter(e.item, e.count, e.error);
+                merged.counters.put(e.item, counter);
+                merged.place(counter, null);
+            } else {
+                merged.floor = Math.max(merged.floor, e.count);
+            }
+        }
+        return merged;
+    }
+
+    public static final class Estimate {
+
+        private final int item;
+        private final long count;
+        private final long error;
+
+        private Estimate(int item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public int getItem() {
+            return item;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        public long getLowerBound() {
+            return count - error;
+        }
+    }
+
+    private static final class Counter {
+
+        private final int item;
+        private long count;
+        private final long error;
+        private Bucket bucket;
+        private Counter prev;
+        private Counter next;
+
+        private Counter(int item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long count;
+        private Counter head;
+        private Bucket prev;
+        private Bucket next;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+
+        private void add(Counter counter) {
+            counter.bucket = this;
+            counter.prev = null;
+            counter.next = head;
+            if (head != null) {
+                head.prev = counter;
+            }
+            head = counter;
+        }
+
+        private void remove(Counter counter) {
+            if (counter.prev == null) {
+                head = counter.next;
+            } else {
+                counter.prev.next = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.prev = counter.prev;
+            }
+            counter.bucket = null;
+            counter.prev = null;
+            counter.next = null;
+        }
+    }
+}
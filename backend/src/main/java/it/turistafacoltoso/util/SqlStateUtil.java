@@ -0,0 +1,58 @@
+package it.turistafacoltoso.util;
+
+import java.sql.SQLException;
+
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+
+public final class SqlStateUtil {
+
+    public static final String UNIQUE_VIOLATION = "23505";
+    public static final String FOREIGN_KEY_VIOLATION = "23503";
+    public static final String CHECK_VIOLATION = "23514";
+    public static final String EXCLUSION_VIOLATION = "23P01";
+
+    private SqlStateUtil() {}
+
+    public static boolean isUniqueViolation(Throwable e) {
+        return hasState(e, UNIQUE_VIOLATION);
+    }
+
+    public static boolean isForeignKeyViolation(Throwable e) {
+        return hasState(e, FOREIGN_KEY_VIOLATION);
+    }
+
+    public static boolean isCheckViolation(Throwable e) {
+        return hasState(e, CHECK_VIOLATION);
+    }
+
+    public static boolean isExclusionViolation(Throwable e) {
+        return hasState(e, EXCLUSION_VIOLATION);
+    }
+
+    public static boolean hasState(Throwable e, String sqlState) {
+        SQLException sqlException = findSqlException(e);
+        return sqlException != null && sqlState.equals(sqlException.getSQLState());
+    }
+
+    public static String constraintName(Throwable e) {
+        SQLException sqlException = findSqlException(e);
+        if (sqlException instanceof PSQLException psql) {
+            ServerErrorMessage server = psql.getServerErrorMessage();
+            if (server != null) {
+                return server.getConstraint();
+            }
+        }
+        return null;
+    }
+
+    private static SQLException findSqlException(Throwable e) {
+        while (e != null) {
+            if (e instanceof SQLException sqlException) {
+                return sqlException;
+            }
+            e = e.getCause();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,167 @@
+package it.turistafacoltoso.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.postgresql.PGStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class StatementCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCache.class);
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private final Connection physical;
+    private final int maxSize;
+    private final int prepareThreshold;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    public StatementCache(Connection physical, int maxSize, int prepareThreshold) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    public PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        PreparedStatement ps = statements.remove(sql);
+        if (ps != null && !ps.isClosed()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            ps = physical.prepareStatement(sql);
+            if (prepareThreshold > 0 && ps.isWrapperFor(PGStatement.class)) {
+                ps.unwrap(PGStatement.class).setPrepareThreshold(prepareThreshold);
+            }
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new StatementHandler(sql, ps, owner));
+    }
+
+    private void checkIn(String sql, PreparedStatement ps) {
+        try {
+            ResultSet rs = ps.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+            ps.clearParameters();
+            ps.clearWarnings();
+            if (ps.getFetchSize() != 0) {
+                ps.setFetchSize(0);
+            }
+            if (ps.getMaxRows() != 0) {
+                ps.setMaxRows(0);
+            }
+            if (ps.getQueryTimeout() != 0) {
+                ps.setQueryTimeout(0);
+            }
+        } catch (SQLException e) {
+            closeQuietly(ps);
+            return;
+        }
+
+        PreparedStatement previous = statements.put(sql, ps);
+        if (previous != null && previous != ps) {
+            closeQuietly(previous);
+        }
+        Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            PreparedStatement eldest = it.next().getValue();
+            it.remove();
+            evictions.incrementAndGet();
+            closeQuietly(eldest);
+        }
+    }
+
+    public void clear() {
+        statements.values().forEach(this::closeQuietly);
+        statements.clear();
+    }
+
+    private void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            log.debug("Error closing cached statement: {}", e.getMessage());
+        }
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static long getEvictions() {
+        return evictions.get();
+    }
+
+    public static double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final String sql;
+        private final PreparedStatement delegate;
+        private final Connection owner;
+        private boolean returned = false;
+
+        private StatementHandler(String sql, PreparedStatement delegate, Connection owner) {
+            this.sql = sql;
+            this.delegate = delegate;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        checkIn(sql, delegate);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || delegate.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return delegate.toString();
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package it.turistafacoltoso.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+
+    public StripedLock(int size) {
+        int n = Integer.highestOneBit(Math.max(size, 1) - 1) << 1;
+        stripes = new ReentrantLock[Math.max(n, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(int key) {
+        return stripes[indexOf(key)];
+    }
+
+    public List<Lock> getAll(Collection<Integer> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Integer key : keys) {
+            indexes.add(indexOf(key));
+        }
+        List<Lock> locks = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+
+    private int indexOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
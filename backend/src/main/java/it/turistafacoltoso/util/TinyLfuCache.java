@@ -0,0 +1,296 @@
+package it.turistafacoltoso.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int maximumSize;
+    private final int windowMax;
+    private final int protectedMax;
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    private final Queue<K, V> window = new Queue<>();
+    private final Queue<K, V> probation = new Queue<>();
+    private final Queue<K, V> protectedQueue = new Queue<>();
+    private final FrequencySketch sketch;
+    private final UnaryOperator<V> copier;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public TinyLfuCache(int maximumSize) {
+        this(maximumSize, UnaryOperator.identity());
+    }
+
+    // copier is applied to values going in and coming out, so callers never share a cached instance
+    public TinyLfuCache(int maximumSize, UnaryOperator<V> copier) {
+        this.copier = copier;
+        this.maximumSize = Math.max(maximumSize, 0);
+        this.windowMax = Math.max(this.maximumSize / 100, 1);
+        this.protectedMax = (this.maximumSize - windowMax) * 4 / 5;
+        this.sketch = new FrequencySketch(this.maximumSize);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (maximumSize == 0) {
+            return loader.apply(key);
+        }
+        long loadGeneration;
+        V cached = null;
+        synchronized (this) {
+            sketch.increment(key.hashCode());
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                hits++;
+                onHit(node);
+                cached = node.value;
+            } else {
+                misses++;
+            }
+            loadGeneration = generation;
+        }
+        if (cached != null) {
+            return copier.apply(cached);
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            V copy = copier.apply(value);
+            synchronized (this) {
+                if (loadGeneration == generation && !data.containsKey(key)) {
+                    insert(key, copy);
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        Node<K, V> node = data.remove(key);
+        if (node != null) {
+            queue(node.queue).unlink(node);
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<? super V> predicate) {
+        generation++;
+        Iterator<Node<K, V>> it = data.values().iterator();
+        while (it.hasNext()) {
+            Node<K, V> node = it.next();
+            if (predicate.test(node.value)) {
+                it.remove();
+                queue(node.queue).unlink(node);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized int getSize() {
+        return data.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private Queue<K, V> queue(int queue) {
+        return switch (queue) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedQueue;
+        };
+    }
+
+    private void onHit(Node<K, V> node) {
+        if (node.queue == PROBATION) {
+            probation.unlink(node);
+            protectedQueue.addFirst(node, PROTECTED);
+            if (protectedQueue.size > protectedMax) {
+                Node<K, V> demoted = protectedQueue.removeLast();
+                probation.addFirst(demoted, PROBATION);
+            }
+        } else {
+            queue(node.queue).moveToFirst(node);
+        }
+    }
+
+    private void insert(K key, V value) {
+        Node<K, V> node = new Node<>(key, value);
+        data.put(key, node);
+        window.addFirst(node, WINDOW);
+        if (window.size <= windowMax) {
+            return;
+        }
+        Node<K, V> candidate = window.removeLast();
+        if (probation.size + protectedQueue.size < maximumSize - windowMax) {
+            probation.addFirst(candidate, PROBATION);
+            return;
+        }
+        Queue<K, V> victims = probation.size > 0 ? probation : protectedQueue;
+        Node<K, V> victim = victims.last();
+        if (victim != null && sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+            victims.unlink(victim);
+            data.remove(victim.key);
+            probation.addFirst(candidate, PROBATION);
+        } else {
+            data.remove(candidate.key);
+        }
+        evictions++;
+    }
+
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final V value;
+        private int queue;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Queue<K, V> {
+
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        private int size;
+
+        private void addFirst(Node<K, V> node, int queue) {
+            node.queue = queue;
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            } else {
+                tail = node;
+            }
+            head = node;
+            size++;
+        }
+
+        private void unlink(Node<K, V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        private void moveToFirst(Node<K, V> node) {
+            if (node != head) {
+                unlink(node);
+                addFirst(node, node.queue);
+            }
+        }
+
+        private Node<K, V> last() {
+            return tail;
+        }
+
+        private Node<K, V> removeLast() {
+            Node<K, V> node = tail;
+            unlink(node);
+            return node;
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    private static final class FrequencySketch {
+
+        private static final int[] SEEDS = { 0x97cb3127, 0xb7c3a4a5, 0x5bd1e995, 0x27d4eb2f };
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(maximumSize, 8) - 1) << 1;
+            this.rows = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(maximumSize, 8);
+        }
+
+        private void increment(int hash) {
+            boolean added = false;
+            int min = frequency(hash);
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] == min && min < MAX_COUNT) {
+                    rows[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(int hash) {
+            int min = MAX_COUNT;
+            for (int i = 0; i < rows.length; i++) {
+                min = Math.min(min, rows[i][index(hash, i)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- Ultima prenotazione di un utente e report giorni per utente
+CREATE INDEX IF NOT EXISTS idx_prenotazione_utente_data
+    ON prenotazione (utente_id, data_inizio DESC);
+
+-- Join prenotazione -> abitazione con filtro sulla data nei report
+CREATE INDEX IF NOT EXISTS idx_prenotazione_abitazione_data
+    ON prenotazione (abitazione_id, data_inizio);
+
+-- Filtro "ultimo mese" sui report
+CREATE INDEX IF NOT EXISTS idx_prenotazione_data_inizio
+    ON prenotazione (data_inizio);
+
+-- Join abitazione -> host (findByCodiceHost, report host)
+CREATE INDEX IF NOT EXISTS idx_abitazione_host
+    ON abitazione (host_id);
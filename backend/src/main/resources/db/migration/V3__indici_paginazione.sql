@@ -0,0 +1,12 @@
+-- Indici composti (chiave di ordinamento, id) per la paginazione keyset
+CREATE INDEX IF NOT EXISTS idx_prenotazione_data_inizio_id
+    ON prenotazione (data_inizio, id);
+
+CREATE INDEX IF NOT EXISTS idx_abitazione_prezzo_id
+    ON abitazione (prezzo, id);
+
+CREATE INDEX IF NOT EXISTS idx_utente_cognome_id
+    ON utente (cognome, id);
+
+-- Coperto da idx_prenotazione_data_inizio_id
+DROP INDEX IF EXISTS idx_prenotazione_data_inizio;
@@ -0,0 +1,29 @@
+-- Una abitazione non può avere due prenotazioni sovrapposte.
+-- Le notti prenotate sono l'intervallo [data_inizio, data_fine): il giorno di uscita
+-- può coincidere con il giorno di arrivo della prenotazione successiva.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+DECLARE
+    conflitti TEXT;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'excl_prenotazione_sovrapposta') THEN
+        RETURN;
+    END IF;
+
+    SELECT string_agg(p.id || '/' || q.id, ', ')
+    INTO conflitti
+    FROM prenotazione p
+    JOIN prenotazione q
+      ON q.abitazione_id = p.abitazione_id
+     AND q.id > p.id
+     AND daterange(q.data_inizio, q.data_fine, '[)') && daterange(p.data_inizio, p.data_fine, '[)');
+
+    IF conflitti IS NOT NULL THEN
+        RAISE EXCEPTION 'Prenotazioni sovrapposte presenti (id %): correggerle prima di applicare V4', conflitti;
+    END IF;
+
+    ALTER TABLE prenotazione
+        ADD CONSTRAINT excl_prenotazione_sovrapposta
+        EXCLUDE USING gist (abitazione_id WITH =, daterange(data_inizio, data_fine, '[)') WITH &&);
+END $$;
@@ -0,0 +1,39 @@
+-- Un contatore di scritture per tabella, letto da VersioniTabelle per ETag e cache dei risultati.
+-- Il trigger di statement lo fa avanzare per ogni scrittura: API, import da CLI, altre istanze o SQL manuale.
+CREATE SEQUENCE IF NOT EXISTS versione_utente;
+CREATE SEQUENCE IF NOT EXISTS versione_host;
+CREATE SEQUENCE IF NOT EXISTS versione_abitazione;
+CREATE SEQUENCE IF NOT EXISTS versione_prenotazione;
+CREATE SEQUENCE IF NOT EXISTS versione_feedback;
+
+CREATE OR REPLACE FUNCTION incrementa_versione() RETURNS trigger AS $$
+BEGIN
+    PERFORM nextval(TG_ARGV[0]);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_versione_utente ON utente;
+CREATE TRIGGER trg_versione_utente
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON utente
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_utente');
+
+DROP TRIGGER IF EXISTS trg_versione_host ON host;
+CREATE TRIGGER trg_versione_host
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON host
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_host');
+
+DROP TRIGGER IF EXISTS trg_versione_abitazione ON abitazione;
+CREATE TRIGGER trg_versione_abitazione
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON abitazione
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_abitazione');
+
+DROP TRIGGER IF EXISTS trg_versione_prenotazione ON prenotazione;
+CREATE TRIGGER trg_versione_prenotazione
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON prenotazione
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_prenotazione');
+
+DROP TRIGGER IF EXISTS trg_versione_feedback ON feedback;
+CREATE TRIGGER trg_versione_feedback
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON feedback
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_feedback');
@@ -0,0 +1,37 @@
+-- Indici composti (chiave di ordinamento, id) per le altre chiavi ammesse dalla paginazione keyset.
+-- Le liste host ordinate per nome o email scorrono gli indici di utente e passano a host per chiave primaria.
+CREATE INDEX IF NOT EXISTS idx_abitazione_nome_id
+    ON abitazione (nome, id);
+
+CREATE INDEX IF NOT EXISTS idx_abitazione_posti_letto_id
+    ON abitazione (posti_letto, id);
+
+CREATE INDEX IF NOT EXISTS idx_abitazione_data_inizio_id
+    ON abitazione (data_inizio, id);
+
+CREATE INDEX IF NOT EXISTS idx_abitazione_host_id
+    ON abitazione (host_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_prenotazione_data_fine_id
+    ON prenotazione (data_fine, id);
+
+CREATE INDEX IF NOT EXISTS idx_prenotazione_utente_id
+    ON prenotazione (utente_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_prenotazione_abitazione_id
+    ON prenotazione (abitazione_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_utente_nome_id
+    ON utente (nome, id);
+
+CREATE INDEX IF NOT EXISTS idx_utente_email_id
+    ON utente (email, id);
+
+CREATE INDEX IF NOT EXISTS idx_host_codice_host_id
+    ON host (codice_host, id);
+
+CREATE INDEX IF NOT EXISTS idx_feedback_prenotazione_id
+    ON feedback (prenotazione_id, id);
+
+-- Coperto da idx_abitazione_host_id
+DROP INDEX IF EXISTS idx_abitazione_host;
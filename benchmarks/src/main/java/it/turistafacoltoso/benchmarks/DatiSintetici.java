@@ -0,0 +1,203 @@
+package it.turistafacoltoso.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.util.DatabaseConnection;
+import it.turistafacoltoso.util.MigrationRunner;
+
+public final class DatiSintetici {
+
+    private static final Logger log = LoggerFactory.getLogger(DatiSintetici.class);
+
+    private static final String URL = System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/turista_facoltoso_bench");
+    private static final String USER = System.getProperty("bench.db.user", "postgres");
+    private static final String PWD = System.getProperty("bench.db.pwd", "postgres");
+
+    private static final int UTENTI = Integer.getInteger("bench.utenti", 5_000);
+    private static final int HOST = Integer.getInteger("bench.host", 200);
+    private static final int ABITAZIONI = Integer.getInteger("bench.abitazioni", 20_000);
+    private static final int PRENOTAZIONI = Integer.getInteger("bench.prenotazioni", 300_000);
+
+    private static final int GIORNI_PER_SLOT = 7;
+
+    private static boolean pronto = false;
+
+    private DatiSintetici() {
+    }
+
+    public static synchronized void prepara() {
+        if (pronto) {
+            return;
+        }
+        try {
+            creaDatabase();
+            DatabaseConnection.init(scriviConfigurazione().toString());
+            MigrationRunner.migrate();
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                if (!datiPresenti(conn)) {
+                    popola(conn);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Errore preparazione dati sintetici: " + e.getMessage(), e);
+        }
+        pronto = true;
+    }
+
+    public static Properties configurazione() {
+        Properties props = new Properties();
+        props.setProperty("db.url", URL);
+        props.setProperty("db.user", USER);
+        props.setProperty("db.pwd", PWD);
+        return props;
+    }
+
+    public static int getUtenti() {
+        return UTENTI;
+    }
+
+    public static int getHost() {
+        return HOST;
+    }
+
+    public static int getAbitazioni() {
+        return ABITAZIONI;
+    }
+
+    public static int getPrenotazioni() {
+        return PRENOTAZIONI;
+    }
+
+    private static void creaDatabase() throws SQLException {
+        int fine = URL.indexOf('?') < 0 ? URL.length() : URL.indexOf('?');
+        int inizio = URL.lastIndexOf('/', fine) + 1;
+        String nome = URL.substring(inizio, fine);
+        String urlAmministrazione = URL.substring(0, inizio) + "postgres";
+
+        try (Connection conn = DriverManager.getConnection(urlAmministrazione, USER, PWD)) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+                ps.setString(1, nome);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return;
+                    }
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE DATABASE \"" + nome.replace("\"", "\"\"") + "\"");
+            }
+            log.info("Creato database di benchmark {}", nome);
+        }
+    }
+
+    private static Path scriviConfigurazione() {
+        Properties props = configurazione();
+        try {
+            Path file = Files.createTempFile("turista-bench", ".properties");
+            file.toFile().deleteOnExit();
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                props.store(writer, null);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean datiPresenti(Connection conn) throws SQLException {
+        return conta(conn, "utente") == UTENTI
+                && conta(conn, "host") == HOST
+                && conta(conn, "abitazione") == ABITAZIONI
+                && conta(conn, "prenotazione") == PRENOTAZIONI;
+    }
+
+    private static long conta(Connection conn, String tabella) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + tabella)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void popola(Connection conn) throws SQLException {
+        if (HOST > UTENTI) {
+            throw new IllegalArgumentException("bench.host non può superare bench.utenti");
+        }
+        long start = System.currentTimeMillis();
+        int slot = (PRENOTAZIONI + ABITAZIONI - 1) / ABITAZIONI;
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE feedback, prenotazione, abitazione, host, utente RESTART IDENTITY CASCADE");
+
+            stmt.execute("""
+                INSERT INTO utente (nome, cognome, email, indirizzo)
+                SELECT 'Nome' || g, 'Cognome' || g, 'utente' || g || '@bench.local', 'Via Roma ' || g
+                FROM generate_series(1, %d) g
+                """.formatted(UTENTI));
+
+            stmt.execute("""
+                INSERT INTO host (id, codice_host)
+                SELECT g, 'H' || lpad(g::text, 6, '0')
+                FROM generate_series(1, %d) g
+                """.formatted(HOST));
+
+            stmt.execute("""
+                INSERT INTO abitazione (nome, indirizzo, locali, posti_letto, piano, prezzo, data_inizio, data_fine, host_id)
+                SELECT 'Abitazione ' || g,
+                       'Via Garibaldi ' || g || ', ' || (ARRAY['Roma', 'Milano', 'Napoli', 'Torino', 'Firenze'])[1 + g %% 5],
+                       1 + g %% 5,
+                       1 + g %% 8,
+                       CASE WHEN g %% 7 = 0 THEN NULL ELSE g %% 10 END,
+                       (50 + g %% 450)::numeric(8,2),
+                       CURRENT_DATE - %d,
+                       CURRENT_DATE + 365,
+                       1 + g %% %d
+                FROM generate_series(1, %d) g
+                """.formatted(slot * GIORNI_PER_SLOT + 30, HOST, ABITAZIONI));
+
+            // Ogni abitazione riceve al massimo una prenotazione per slot di una settimana,
+            // così il vincolo di non sovrapposizione (V4) è sempre rispettato.
+            stmt.execute("""
+                INSERT INTO prenotazione (data_inizio, data_fine, utente_id, abitazione_id)
+                SELECT CURRENT_DATE - %1$d + ((g - 1) / %2$d) * %3$d,
+                       CURRENT_DATE - %1$d + ((g - 1) / %2$d) * %3$d + 1 + g %% 5,
+                       1 + g %% %4$d,
+                       1 + (g - 1) %% %2$d
+                FROM generate_series(1, %5$d) g
+                """.formatted(slot * GIORNI_PER_SLOT, ABITAZIONI, GIORNI_PER_SLOT, UTENTI, PRENOTAZIONI));
+
+            stmt.execute("""
+                INSERT INTO feedback (titolo, testo, punteggio, prenotazione_id)
+                SELECT 'Feedback ' || id, 'Soggiorno numero ' || id, 1 + id % 5, id
+                FROM prenotazione
+                WHERE id % 10 = 0
+                """);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE");
+        }
+        log.info("Dati sintetici generati: {} utenti, {} host, {} abitazioni, {} prenotazioni in {} ms",
+                UTENTI, HOST, ABITAZIONI, PRENOTAZIONI, System.currentTimeMillis() - start);
+    }
+}
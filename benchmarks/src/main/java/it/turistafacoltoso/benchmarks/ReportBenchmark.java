@@ -0,0 +1,140 @@
+package it.turistafacoltoso.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.turistafacoltoso.model.Host;
+import it.turistafacoltoso.model.ReportOccupazione;
+import it.turistafacoltoso.model.ReportTop;
+import it.turistafacoltoso.service.AggregatiPrenotazioni;
+import it.turistafacoltoso.service.ClassificheTop;
+import it.turistafacoltoso.service.FinestraUltimoMese;
+import it.turistafacoltoso.service.IndiceOccupazione;
+import it.turistafacoltoso.util.DatabaseConnection;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    private static final String SQL_SUPER_HOST = """
+        SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host,
+               COUNT(p.id) AS totale_prenotazioni
+        FROM host h
+        JOIN utente u ON h.id = u.id
+        JOIN abitazione a ON h.id = a.host_id
+        JOIN prenotazione p ON a.id = p.abitazione_id
+        GROUP BY u.id, h.codice_host
+        HAVING COUNT(p.id) >= 100
+        """;
+
+    private static final String SQL_HOST_PIU_PRENOTAZIONI_ULTIMO_MESE = """
+        SELECT u.id, u.nome, u.cognome, u.email, u.indirizzo, h.codice_host,
+               COUNT(p.id) AS num_prenotazioni
+        FROM host h
+        JOIN utente u ON h.id = u.id
+        JOIN abitazione a ON h.id = a.host_id
+        JOIN prenotazione p ON a.id = p.abitazione_id
+        WHERE p.data_inizio >= CURRENT_DATE - INTERVAL '1 month'
+        GROUP BY u.id, h.codice_host
+        ORDER BY num_prenotazioni DESC
+        """;
+
+    private static final String SQL_MEDIA_POSTI_LETTO = "SELECT AVG(posti_letto) AS media FROM abitazione";
+
+    private LocalDate dal;
+    private LocalDate al;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DatiSintetici.prepara();
+        AggregatiPrenotazioni.getInstance().carica();
+        FinestraUltimoMese.getInstance().carica();
+        ClassificheTop.getInstance().carica();
+        IndiceOccupazione.getInstance().carica();
+        al = LocalDate.now();
+        dal = al.minusDays(90);
+    }
+
+    @Benchmark
+    public List<Host> sqlSuperHost() throws SQLException {
+        return trovaHost(SQL_SUPER_HOST);
+    }
+
+    @Benchmark
+    public List<Host> sqlHostPiuPrenotazioniUltimoMese() throws SQLException {
+        return trovaHost(SQL_HOST_PIU_PRENOTAZIONI_ULTIMO_MESE);
+    }
+
+    @Benchmark
+    public Double sqlMediaPostiLetto() throws SQLException {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_MEDIA_POSTI_LETTO);
+             ResultSet rs = ps.executeQuery()) {
+
+            return rs.next() ? rs.getDouble("media") : 0.0;
+        }
+    }
+
+    @Benchmark
+    public List<Integer> memoriaSuperHost() {
+        return AggregatiPrenotazioni.getInstance().getSuperHostIds();
+    }
+
+    @Benchmark
+    public List<Integer> memoriaHostPiuPrenotazioniUltimoMese() {
+        return FinestraUltimoMese.getInstance().getHostPerPrenotazioni();
+    }
+
+    @Benchmark
+    public ReportTop memoriaTopAbitazioni() {
+        return ClassificheTop.getInstance().classifica(ClassificheTop.Entita.ABITAZIONE, 30, null, 10);
+    }
+
+    @Benchmark
+    public ReportOccupazione memoriaOccupazione() {
+        return IndiceOccupazione.getInstance().report(dal, al);
+    }
+
+    private static List<Host> trovaHost(String sql) throws SQLException {
+        List<Host> hosts = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                Host h = new Host();
+                h.setId(rs.getInt("id"));
+                h.setNome(rs.getString("nome"));
+                h.setCognome(rs.getString("cognome"));
+                h.setEmail(rs.getString("email"));
+                h.setIndirizzo(rs.getString("indirizzo"));
+                h.setCodiceHost(rs.getString("codice_host"));
+                hosts.add(h);
+            }
+        }
+        return hosts;
+    }
+}
@@ -0,0 +1,70 @@
+package it.turistafacoltoso.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.turistafacoltoso.Main;
+import it.turistafacoltoso.model.Abitazione;
+import it.turistafacoltoso.model.Prenotazione;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializzazioneJsonBenchmark {
+
+    private static final String[] CITTA = { "Roma", "Milano", "Napoli", "Torino", "Firenze" };
+
+    @Param({ "1000", "20000" })
+    private int dimensione;
+
+    private ObjectMapper objectMapper;
+    private List<Abitazione> abitazioni;
+    private List<Prenotazione> prenotazioni;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        objectMapper = Main.creaObjectMapper();
+        LocalDate oggi = LocalDate.now();
+        abitazioni = new ArrayList<>(dimensione);
+        prenotazioni = new ArrayList<>(dimensione);
+        for (int i = 1; i <= dimensione; i++) {
+            abitazioni.add(new Abitazione(i, "Abitazione " + i, "Via Garibaldi " + i + ", " + CITTA[i % CITTA.length],
+                    1 + i % 5, 1 + i % 8, i % 7 == 0 ? null : i % 10, BigDecimal.valueOf(5000 + i % 45000, 2),
+                    oggi.minusDays(365), oggi.plusDays(365), 1 + i % 200));
+            LocalDate inizio = oggi.minusDays(i % 120);
+            prenotazioni.add(new Prenotazione(i, inizio, inizio.plusDays(1 + i % 5), 1 + i % 5000, 1 + i % 20000));
+        }
+    }
+
+    @Benchmark
+    public byte[] abitazioni() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(abitazioni);
+    }
+
+    @Benchmark
+    public byte[] prenotazioni() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(prenotazioni);
+    }
+}
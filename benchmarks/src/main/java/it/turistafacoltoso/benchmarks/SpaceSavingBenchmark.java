@@ -0,0 +1,102 @@
+package it.turistafacoltoso.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.turistafacoltoso.util.SpaceSaving;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpaceSavingBenchmark {
+
+    private static final int GIORNI = 30;
+    private static final int PER_GIORNO = 10_000;
+    private static final int ABITAZIONI = 20_000;
+
+    @Param({ "16", "256" })
+    private int capacita;
+
+    private int[][] flussi;
+    private List<SpaceSaving> giorni;
+
+    // Prima di misurare si verifica che ogni stima, giornaliera e unita, rispetti i limiti dichiarati dal report:
+    // minimo <= conteggio vero <= stima, e nessun elemento con conteggio vero oltre il limite d'errore manca.
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        flussi = new int[GIORNI][PER_GIORNO];
+        giorni = new ArrayList<>(GIORNI);
+        Map<Integer, Long> totale = new HashMap<>();
+        for (int g = 0; g < GIORNI; g++) {
+            Map<Integer, Long> veri = new HashMap<>();
+            SpaceSaving sketch = new SpaceSaving(capacita);
+            for (int i = 0; i < PER_GIORNO; i++) {
+                int abitazione = random.nextDouble() < 0.5
+                        ? (int) Math.abs(random.nextGaussian() * 40) + g % 7
+                        : random.nextInt(ABITAZIONI);
+                flussi[g][i] = abitazione;
+                sketch.offer(abitazione);
+                veri.merge(abitazione, 1L, Long::sum);
+                totale.merge(abitazione, 1L, Long::sum);
+            }
+            verifica("giorno " + g, sketch, veri);
+            giorni.add(sketch);
+        }
+        verifica("unione", SpaceSaving.merge(giorni, capacita), totale);
+    }
+
+    @Benchmark
+    public SpaceSaving offerGiorno() {
+        SpaceSaving sketch = new SpaceSaving(capacita);
+        for (int abitazione : flussi[0]) {
+            sketch.offer(abitazione);
+        }
+        return sketch;
+    }
+
+    @Benchmark
+    public List<SpaceSaving.Estimate> mergeTop10() {
+        return SpaceSaving.merge(giorni, capacita).top(10);
+    }
+
+    private static void verifica(String nome, SpaceSaving sketch, Map<Integer, Long> veri) {
+        long limite = sketch.getFloor();
+        Map<Integer, SpaceSaving.Estimate> stime = new HashMap<>();
+        for (SpaceSaving.Estimate stima : sketch.top(Integer.MAX_VALUE)) {
+            long vero = veri.getOrDefault(stima.getItem(), 0L);
+            if (stima.getLowerBound() > vero || stima.getCount() < vero || stima.getError() > limite) {
+                throw new IllegalStateException(nome + ": stima fuori dai limiti per " + stima.getItem()
+                        + " (vero " + vero + ", stima " + stima.getCount() + ", errore " + stima.getError()
+                        + ", limite " + limite + ")");
+            }
+            stime.put(stima.getItem(), stima);
+        }
+        veri.forEach((abitazione, vero) -> {
+            if (vero > limite && !stime.containsKey(abitazione)) {
+                throw new IllegalStateException(nome + ": manca " + abitazione + " con " + vero
+                        + " prenotazioni, oltre il limite d'errore " + limite);
+            }
+        });
+    }
+}
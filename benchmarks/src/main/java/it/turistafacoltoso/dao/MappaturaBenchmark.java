@@ -0,0 +1,85 @@
+package it.turistafacoltoso.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import it.turistafacoltoso.benchmarks.DatiSintetici;
+import it.turistafacoltoso.util.DatabaseConnection;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappaturaBenchmark {
+
+    private static final int RIGHE = 10_000;
+
+    private final AbitazioneDAO abitazioneDAO = new AbitazioneDAO();
+    private final PrenotazioneDAO prenotazioneDAO = new PrenotazioneDAO();
+
+    private Connection conn;
+    private Statement stmtAbitazioni;
+    private Statement stmtPrenotazioni;
+    private ResultSet abitazioni;
+    private ResultSet prenotazioni;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        DatiSintetici.prepara();
+        if (DatiSintetici.getAbitazioni() < RIGHE || DatiSintetici.getPrenotazioni() < RIGHE) {
+            throw new IllegalStateException("Servono almeno " + RIGHE + " abitazioni e prenotazioni");
+        }
+        conn = DatabaseConnection.getReadConnection();
+        stmtAbitazioni = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        stmtPrenotazioni = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        abitazioni = stmtAbitazioni.executeQuery("SELECT * FROM abitazione ORDER BY id LIMIT " + RIGHE);
+        prenotazioni = stmtPrenotazioni.executeQuery("SELECT * FROM prenotazione ORDER BY id LIMIT " + RIGHE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        abitazioni.close();
+        prenotazioni.close();
+        stmtAbitazioni.close();
+        stmtPrenotazioni.close();
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RIGHE)
+    public void mapRowToAbitazione(Blackhole bh) throws SQLException {
+        abitazioni.beforeFirst();
+        while (abitazioni.next()) {
+            bh.consume(abitazioneDAO.mapRowToAbitazione(abitazioni));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RIGHE)
+    public void mapRowToPrenotazione(Blackhole bh) throws SQLException {
+        prenotazioni.beforeFirst();
+        while (prenotazioni.next()) {
+            bh.consume(prenotazioneDAO.mapRowToPrenotazione(prenotazioni));
+        }
+    }
+}
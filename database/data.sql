@@ -29,9 +29,9 @@ INSERT INTO prenotazione (data_inizio, data_fine, utente_id, abitazione_id) VALU
 ('2026-01-10', '2026-01-20', 6, 4),   -- Sara, 10 giorni
 ('2026-01-12', '2026-01-14', 7, 6),   -- Paolo, 2 giorni
 ('2026-01-15', '2026-01-25', 8, 1),   -- Elena, 10 giorni (stessa abitazione di Giulia)
-('2026-01-18', '2026-01-28', 9, 1),   -- Francesco, 10 giorni (abitazione più gettonata)
+('2026-01-25', '2026-02-04', 9, 1),   -- Francesco, 10 giorni (abitazione più gettonata)
 ('2026-01-20', '2026-01-22', 10, 3),  -- Chiara, 2 giorni
-('2026-01-01', '2026-01-31', 4, 4),   -- Giulia, 30 giorni (utente con più giorni)
+('2026-01-20', '2026-02-19', 4, 4),   -- Giulia, 30 giorni (utente con più giorni)
 
 ('2025-06-01', '2025-06-07', 5, 3),
 ('2025-07-10', '2025-07-17', 6, 5),
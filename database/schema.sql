@@ -1,3 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
 -- 1. UTENTE
 CREATE TABLE utente (
     id SERIAL PRIMARY KEY,
@@ -47,7 +49,9 @@ CREATE TABLE prenotazione (
         REFERENCES utente(id),
     CONSTRAINT fk_prenotazione_abitazione
         FOREIGN KEY (abitazione_id)
-        REFERENCES abitazione(id)
+        REFERENCES abitazione(id),
+    CONSTRAINT excl_prenotazione_sovrapposta
+        EXCLUDE USING gist (abitazione_id WITH =, daterange(data_inizio, data_fine, '[)') WITH &&)
 );
 
 -- 5. FEEDBACK
@@ -62,3 +66,46 @@ CREATE TABLE feedback (
         REFERENCES prenotazione(id)
         ON DELETE CASCADE
 );
+
+-- INDICI (allineati agli script in backend/src/main/resources/db/migration)
+CREATE INDEX idx_prenotazione_utente_data ON prenotazione (utente_id, data_inizio DESC);
+CREATE INDEX idx_prenotazione_abitazione_data ON prenotazione (abitazione_id, data_inizio);
+CREATE INDEX idx_prenotazione_data_inizio_id ON prenotazione (data_inizio, id);
+CREATE INDEX idx_prenotazione_data_fine_id ON prenotazione (data_fine, id);
+CREATE INDEX idx_prenotazione_utente_id ON prenotazione (utente_id, id);
+CREATE INDEX idx_prenotazione_abitazione_id ON prenotazione (abitazione_id, id);
+CREATE INDEX idx_abitazione_nome_id ON abitazione (nome, id);
+CREATE INDEX idx_abitazione_prezzo_id ON abitazione (prezzo, id);
+CREATE INDEX idx_abitazione_posti_letto_id ON abitazione (posti_letto, id);
+CREATE INDEX idx_abitazione_data_inizio_id ON abitazione (data_inizio, id);
+CREATE INDEX idx_abitazione_host_id ON abitazione (host_id, id);
+CREATE INDEX idx_utente_nome_id ON utente (nome, id);
+CREATE INDEX idx_utente_cognome_id ON utente (cognome, id);
+CREATE INDEX idx_utente_email_id ON utente (email, id);
+CREATE INDEX idx_host_codice_host_id ON host (codice_host, id);
+CREATE INDEX idx_feedback_prenotazione_id ON feedback (prenotazione_id, id);
+
+-- VERSIONI (contatori di scrittura per tabella, vedi V5__versioni_tabelle.sql)
+CREATE SEQUENCE versione_utente;
+CREATE SEQUENCE versione_host;
+CREATE SEQUENCE versione_abitazione;
+CREATE SEQUENCE versione_prenotazione;
+CREATE SEQUENCE versione_feedback;
+
+CREATE FUNCTION incrementa_versione() RETURNS trigger AS $$
+BEGIN
+    PERFORM nextval(TG_ARGV[0]);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_versione_utente AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON utente
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_utente');
+CREATE TRIGGER trg_versione_host AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON host
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_host');
+CREATE TRIGGER trg_versione_abitazione AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON abitazione
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_abitazione');
+CREATE TRIGGER trg_versione_prenotazione AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON prenotazione
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_prenotazione');
+CREATE TRIGGER trg_versione_feedback AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON feedback
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versione('versione_feedback');
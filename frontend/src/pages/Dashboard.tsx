@@ -26,8 +26,8 @@ import {
   TrendingUp, TrendingDown, ArrowRight,
   Copy, ExternalLink, Mail, MapPin, ChevronLeft, ChevronRight
 } from 'lucide-react'
-import { prenotazioniApi, abitazioniApi, utentiApi, feedbackApi, hostApi } from '@/services/api'
-import type { Prenotazione, Abitazione, Utente, Feedback, Host } from '@/types'
+import { dashboardApi, prenotazioniApi, abitazioniApi, utentiApi, hostApi } from '@/services/api'
+import type { Prenotazione, Abitazione, Utente, Feedback, Host, PuntoSerie } from '@/types'
 
 const emptyEditForm = { dataInizio: '', dataFine: '', utenteId: '', abitazioneId: '' }
 const emptyEditFormAbitazione = {
@@ -52,6 +52,10 @@ export default function Dashboard() {
   const [utenti, setUtenti] = useState<Utente[]>([])
   const [hosts, setHosts] = useState<Host[]>([])
   const [feedback, setFeedback] = useState<Feedback[]>([])
+  const [prenotazioniCollegate, setPrenotazioniCollegate] = useState<Prenotazione[]>([])
+  const [abitazioniCollegate, setAbitazioniCollegate] = useState<Abitazione[]>([])
+  const [serieMensile, setSerieMensile] = useState<PuntoSerie[]>([])
+  const [opzioni, setOpzioni] = useState<{ utenti: Utente[]; abitazioni: Abitazione[]; host: Host[] }>({ utenti: [], abitazioni: [], host: [] })
   const [loading, setLoading] = useState(true)
   const [dettaglioPrenotazione, setDettaglioPrenotazione] = useState<Prenotazione | null>(null)
   const [editingPrenotazione, setEditingPrenotazione] = useState<Prenotazione | null>(null)
@@ -75,30 +79,33 @@ export default function Dashboard() {
 
   const load = () => {
     setError(null)
-    return Promise.all([
-      prenotazioniApi.getAll(),
-      abitazioniApi.getAll(),
-      utentiApi.getAll(),
-      feedbackApi.getAll(),
-      hostApi.getAll(),
-    ])
-      .then(([pren, ab, ut, fb, hostList]) => {
-        setPrenotazioni(pren)
-        setAbitazioni(ab)
-        setUtenti(ut)
-        setFeedback(fb)
-        setHosts(hostList)
-        const avg = fb.length > 0 ? fb.reduce((s, f) => s + f.punteggio, 0) / fb.length : 0
+    return dashboardApi.get()
+      .then((d) => {
+        setPrenotazioni(d.prenotazioniRecenti)
+        setAbitazioni(d.abitazioniRecenti)
+        setFeedback([...d.feedbackRecenti].reverse())
+        setPrenotazioniCollegate(d.prenotazioni)
+        setAbitazioniCollegate(d.abitazioni)
+        setUtenti(d.utenti)
+        setHosts(d.host)
+        setSerieMensile(d.prenotazioniPerMese)
         setStats({
-          prenotazioni: pren.length,
-          abitazioni: ab.length,
-          utenti: ut.length,
-          feedbackMedio: Math.round(avg * 10) / 10,
+          prenotazioni: d.totalePrenotazioni,
+          abitazioni: d.totaleAbitazioni,
+          utenti: d.totaleUtenti,
+          feedbackMedio: Math.round(d.feedbackMedio * 10) / 10,
         })
       })
       .catch((e) => setError(e.message))
   }
 
+  const caricaOpzioni = () => {
+    if (opzioni.utenti.length > 0) return
+    Promise.all([utentiApi.getAll(), abitazioniApi.getAll(), hostApi.getAll()])
+      .then(([ut, ab, hostList]) => setOpzioni({ utenti: ut, abitazioni: ab, host: hostList }))
+      .catch((e) => setError(e.message))
+  }
+
   useEffect(() => {
     setLoading(true)
     load().finally(() => setLoading(false))
@@ -112,7 +119,7 @@ export default function Dashboard() {
       return false
     }
     if (editForm.abitazioneId) {
-      const abitazione = abitazioni.find((a) => a.id === Number(editForm.abitazioneId))
+      const abitazione = opzioni.abitazioni.find((a) => a.id === Number(editForm.abitazioneId))
       if (abitazione?.dataInizio && abitazione?.dataFine) {
         const dispInizio = new Date(abitazione.dataInizio)
         const dispFine = new Date(abitazione.dataFine)
@@ -149,6 +156,7 @@ export default function Dashboard() {
   }
 
   const startEdit = (p: Prenotazione) => {
+    caricaOpzioni()
     setEditingPrenotazione(p)
     setEditForm({
       dataInizio: p.dataInizio,
@@ -212,6 +220,7 @@ export default function Dashboard() {
   }
 
   const startEditAbitazione = (a: Abitazione) => {
+    caricaOpzioni()
     setEditingAbitazione(a)
     setEditFormAbitazione({
       nome: a.nome,
@@ -234,8 +243,10 @@ export default function Dashboard() {
     setError(null)
   }
 
+  const prenotazioniNote = [...prenotazioni, ...prenotazioniCollegate]
+  const abitazioniNote = [...abitazioni, ...abitazioniCollegate]
   const getUtente = (id: number) => utenti.find(u => u.id === id)
-  const getAbitazione = (id: number) => abitazioni.find(a => a.id === id)
+  const getAbitazione = (id: number) => abitazioniNote.find(a => a.id === id)
 
   const PER_PAGE = 6
   const [pagePrenotazioni, setPagePrenotazioni] = useState(1)
@@ -263,7 +274,7 @@ export default function Dashboard() {
 
   const filteredFeedback = feedback.filter((f) => {
     if (feedbackScoreFilter !== ALL_FILTER && Number(feedbackScoreFilter) !== f.punteggio) return false
-    const pren = prenotazioni.find((p) => p.id === f.prenotazioneId)
+    const pren = prenotazioniNote.find((p) => p.id === f.prenotazioneId)
     if (feedbackUserFilter !== ALL_FILTER && (!pren || String(pren.utenteId) !== feedbackUserFilter)) return false
     const utente = pren ? getUtente(pren.utenteId) : undefined
     const abit = pren ? getAbitazione(pren.abitazioneId) : undefined
@@ -291,6 +302,7 @@ export default function Dashboard() {
   )
 
   const recentFeedback = [...feedback].slice(-3).reverse()
+  const maxSerie = Math.max(1, ...serieMensile.map((p) => p.valore))
 
   return (
     <div className="flex gap-8 w-full">
@@ -367,6 +379,26 @@ export default function Dashboard() {
           </div>
         </section>
 
+        <section>
+          <h2 className="text-sm font-medium text-muted-foreground mb-4">Prenotazioni per mese</h2>
+          <Card className="shadow-sm">
+            <CardContent className="pt-6">
+              {loading ? (
+                <p className="text-muted-foreground text-sm">Caricamento...</p>
+              ) : (
+                <div className="flex items-end gap-2 h-32">
+                  {serieMensile.map((p) => (
+                    <div key={p.etichetta} className="flex-1 flex flex-col items-center gap-1 min-w-0" title={`${p.etichetta}: ${p.valore.toLocaleString()}`}>
+                      <div className="w-full rounded-t bg-[#2563eb]/70" style={{ height: `${Math.round((p.valore / maxSerie) * 96)}px` }} />
+                      <span className="text-[10px] text-muted-foreground truncate">{p.etichetta.slice(5)}/{p.etichetta.slice(2, 4)}</span>
+                    </div>
+                  ))}
+                </div>
+              )}
+            </CardContent>
+          </Card>
+        </section>
+
         <Tabs defaultValue="prenotazioni" className="w-full">
           <TabsList className="bg-muted/50 border-b border-transparent rounded-none h-12 p-0 gap-0">
             <TabsTrigger 
@@ -405,7 +437,7 @@ export default function Dashboard() {
                   <SelectTrigger className="w-56"><SelectValue placeholder="Abitazione" /></SelectTrigger>
                   <SelectContent>
                     <SelectItem value={ALL_FILTER}>Tutte abitazioni</SelectItem>
-                    {abitazioni.map((a) => (
+                    {abitazioniNote.map((a) => (
                       <SelectItem key={a.id} value={String(a.id)}>{a.nome}</SelectItem>
                     ))}
                   </SelectContent>
@@ -518,7 +550,7 @@ export default function Dashboard() {
                   <p className="text-muted-foreground col-span-full">Nessun feedback.</p>
                 ) : (
                   paginatedFeedback.map((f) => {
-                    const pren = prenotazioni.find((p) => p.id === f.prenotazioneId)
+                    const pren = prenotazioniNote.find((p) => p.id === f.prenotazioneId)
                     const ut = pren ? getUtente(pren.utenteId) : undefined
                     return (
                       <Card key={f.id} className="shadow-sm">
@@ -701,7 +733,7 @@ export default function Dashboard() {
                   </div>
                 ))}
                 {recentFeedback.slice(0, 1).map((f) => {
-                  const pren = prenotazioni.find((p) => p.id === f.prenotazioneId)
+                  const pren = prenotazioniNote.find((p) => p.id === f.prenotazioneId)
                   const ut = pren ? getUtente(pren.utenteId) : undefined
                   return (
                     <div key={f.id} className="flex gap-3 p-3 rounded-lg bg-muted/50">
@@ -813,7 +845,7 @@ export default function Dashboard() {
                   <SelectValue placeholder="Seleziona utente" />
                 </SelectTrigger>
                 <SelectContent>
-                  {utenti.map((u) => (
+                  {opzioni.utenti.map((u) => (
                     <SelectItem key={u.id} value={String(u.id!)}>{u.nome} {u.cognome} ({u.email})</SelectItem>
                   ))}
                 </SelectContent>
@@ -826,7 +858,7 @@ export default function Dashboard() {
                   <SelectValue placeholder="Seleziona abitazione" />
                 </SelectTrigger>
                 <SelectContent>
-                  {abitazioni.map((a) => (
+                  {opzioni.abitazioni.map((a) => (
                     <SelectItem key={a.id} value={String(a.id!)}>
                       {a.nome} – {a.indirizzo} (disponibile {a.dataInizio} → {a.dataFine})
                     </SelectItem>
@@ -904,7 +936,7 @@ export default function Dashboard() {
                   <SelectValue placeholder="Seleziona host" />
                 </SelectTrigger>
                 <SelectContent>
-                  {hosts.map((h) => (
+                  {opzioni.host.map((h) => (
                     <SelectItem key={h.id} value={String(h.id!)}>{h.codiceHost} – {h.nome} {h.cognome}</SelectItem>
                   ))}
                 </SelectContent>
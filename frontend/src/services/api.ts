@@ -1,4 +1,4 @@
-import type { Utente, Host, Abitazione, Prenotazione, Feedback } from '@/types'
+import type { Utente, Host, Abitazione, Prenotazione, Feedback, Dashboard } from '@/types'
 
 const BASE = import.meta.env.VITE_API_URL || ''
 
@@ -69,3 +69,7 @@ export const feedbackApi = {
   update: (id: number, body: Omit<Feedback, 'id'>) => request<Feedback>(`/api/feedback/${id}`, { method: 'PUT', body: JSON.stringify(body) }),
   delete: (id: number) => request<void>(`/api/feedback/${id}`, { method: 'DELETE' }),
 }
+
+export const dashboardApi = {
+  get: () => request<Dashboard>('/api/dashboard'),
+}
@@ -43,3 +43,25 @@ export interface Feedback {
   punteggio: number
   prenotazioneId: number
 }
+
+export interface PuntoSerie {
+  etichetta: string
+  valore: number
+}
+
+export interface Dashboard {
+  totalePrenotazioni: number
+  totaleAbitazioni: number
+  totaleUtenti: number
+  totaleHost: number
+  totaleFeedback: number
+  feedbackMedio: number
+  prenotazioniPerMese: PuntoSerie[]
+  prenotazioniRecenti: Prenotazione[]
+  feedbackRecenti: Feedback[]
+  abitazioniRecenti: Abitazione[]
+  utenti: Utente[]
+  abitazioni: Abitazione[]
+  prenotazioni: Prenotazione[]
+  host: Host[]
+}
@@ -0,0 +1,112 @@
+package it.turistafacoltoso.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+final class GeneratoreCarico {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratoreCarico.class);
+
+    private final Scenario scenario;
+    private final int rate;
+    private final Duration warmup;
+    private final Duration durata;
+    private final Semaphore inVolo;
+    private final HttpClient client;
+    private final Map<String, MisureRotta> misure = new ConcurrentHashMap<>();
+    private volatile long inizioMisura;
+    private long fineMisura;
+
+    GeneratoreCarico(Scenario scenario, int rate, Duration warmup, Duration durata, int maxInVolo) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Il rate deve essere positivo");
+        }
+        this.scenario = scenario;
+        this.rate = rate;
+        this.warmup = warmup;
+        this.durata = durata;
+        this.inVolo = new Semaphore(maxInVolo);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    // Modello aperto: la latenza parte dall'istante previsto dalla cadenza, non dall'invio effettivo,
+    // così i ritardi accumulati quando il server rallenta restano nell'istogramma (coordinated omission).
+    void esegui() {
+        long intervallo = TimeUnit.SECONDS.toNanos(1) / rate;
+        long inizio = System.nanoTime();
+        inizioMisura = inizio + warmup.toNanos();
+        long fine = inizioMisura + durata.toNanos();
+        log.info("Carico a {} req/s: warmup {} s, misura {} s", rate, warmup.toSeconds(), durata.toSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long previsto = inizio + i * intervallo;
+                if (previsto >= fine) {
+                    break;
+                }
+                long attesa = previsto - System.nanoTime();
+                if (attesa > 0) {
+                    LockSupport.parkNanos(attesa);
+                }
+                Richiesta richiesta = scenario.prossima();
+                executor.execute(() -> invia(richiesta, previsto));
+            }
+        }
+        fineMisura = fine;
+    }
+
+    private void invia(Richiesta richiesta, long previsto) {
+        boolean misurata = previsto >= inizioMisura;
+        try {
+            inVolo.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long inizio = System.nanoTime();
+        try {
+            HttpResponse<byte[]> risposta = client.send(richiesta.request(), HttpResponse.BodyHandlers.ofByteArray());
+            long fine = System.nanoTime();
+            richiesta.esito().accept(risposta);
+            if (misurata) {
+                misure(richiesta.rotta()).registra(previsto, inizio, fine, risposta.statusCode());
+            }
+        } catch (IOException e) {
+            if (misurata) {
+                misure(richiesta.rotta()).errore(previsto, System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inVolo.release();
+        }
+    }
+
+    private MisureRotta misure(String rotta) {
+        return misure.computeIfAbsent(rotta, r -> new MisureRotta());
+    }
+
+    Map<String, MisureRotta> getMisure() {
+        return new TreeMap<>(misure);
+    }
+
+    double getSecondiMisurati() {
+        return (fineMisura - inizioMisura) / 1e9;
+    }
+}
@@ -0,0 +1,123 @@
+package it.turistafacoltoso.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import it.turistafacoltoso.benchmarks.DatiSintetici;
+import it.turistafacoltoso.util.DatabaseConnection;
+
+public final class LoadTestRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = System.getProperty("load.url");
+        int porta = Integer.getInteger("load.porta", 7070);
+        List<String> jvmArgs = Arrays.stream(System.getProperty("load.server.jvmArgs", "-Xmx1g").split("\\s+"))
+                .filter(s -> !s.isBlank())
+                .toList();
+        int rate = Integer.getInteger("load.rate", 200);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmupSec", 10));
+        Duration durata = Duration.ofSeconds(Integer.getInteger("load.durataSec", 60));
+        int maxInVolo = Integer.getInteger("load.maxInVolo", 512);
+        Duration timeout = Duration.ofSeconds(Integer.getInteger("load.timeoutSec", 30));
+        long seed = Long.getLong("load.seed", 42);
+        String mixConfigurato = System.getProperty("load.mix");
+        Map<String, Integer> mix = mixConfigurato != null ? Scenario.parseMix(mixConfigurato) : Scenario.mixPredefinito();
+        Path risultati = Path.of(System.getProperty("load.result", "loadtest-result.json"));
+
+        ServerLocale server = null;
+        if (url == null) {
+            DatiSintetici.prepara();
+            DatabaseConnection.shutdown();
+            server = ServerLocale.avvia(porta, jvmArgs, Duration.ofMinutes(2));
+            url = server.getBaseUrl();
+        }
+
+        GeneratoreCarico generatore;
+        try {
+            Scenario scenario = new Scenario(url, mix, timeout, seed);
+            generatore = new GeneratoreCarico(scenario, rate, warmup, durata, maxInVolo);
+            generatore.esegui();
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+
+        Map<String, Object> configurazione = new LinkedHashMap<>();
+        configurazione.put("url", url);
+        configurazione.put("rate", rate);
+        configurazione.put("warmupSec", warmup.toSeconds());
+        configurazione.put("durataSec", durata.toSeconds());
+        configurazione.put("maxInVolo", maxInVolo);
+        configurazione.put("mix", mix);
+        configurazione.put("utenti", DatiSintetici.getUtenti());
+        configurazione.put("host", DatiSintetici.getHost());
+        configurazione.put("abitazioni", DatiSintetici.getAbitazioni());
+        configurazione.put("prenotazioni", DatiSintetici.getPrenotazioni());
+
+        Map<String, MisureRotta> misure = generatore.getMisure();
+        double secondi = generatore.getSecondiMisurati();
+        Histogram totale = new Histogram(3);
+        Map<String, Object> rotte = new LinkedHashMap<>();
+        long richieste = 0;
+        long fallite = 0;
+        for (Map.Entry<String, MisureRotta> voce : misure.entrySet()) {
+            totale.add(voce.getValue().getCorretto());
+            richieste += voce.getValue().getRichieste();
+            fallite += voce.getValue().getFallite();
+            rotte.put(voce.getKey(), voce.getValue().riepilogo(secondi));
+        }
+        Map<String, Object> complessivo = new LinkedHashMap<>();
+        complessivo.put("richieste", richieste);
+        complessivo.put("fallite", fallite);
+        complessivo.put("throughput", richieste / secondi);
+        complessivo.put("latenzaMs", MisureRotta.percentili(totale));
+
+        Map<String, Object> risultato = new LinkedHashMap<>();
+        risultato.put("configurazione", configurazione);
+        risultato.put("secondiMisurati", secondi);
+        risultato.put("totale", complessivo);
+        risultato.put("rotte", rotte);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(risultati.toFile(), risultato);
+
+        stampa(System.out, misure, totale, richieste, fallite, secondi);
+        log.info("Risultati salvati in {}", risultati.toAbsolutePath());
+    }
+
+    private static void stampa(PrintStream out, Map<String, MisureRotta> misure, Histogram totale,
+                               long richieste, long fallite, double secondi) {
+        String formato = "%-50s %8s %8s %9s %9s %9s %9s %9s %7s%n";
+        out.printf(formato, "Rotta", "Req", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "p99 nc", "Errori");
+        for (Map.Entry<String, MisureRotta> voce : misure.entrySet()) {
+            MisureRotta m = voce.getValue();
+            out.printf(formato, voce.getKey(), m.getRichieste(), String.format("%.1f", m.getRichieste() / secondi),
+                    ms(m.getCorretto(), 50), ms(m.getCorretto(), 99), ms(m.getCorretto(), 99.9),
+                    String.format("%.2f", m.getCorretto().getMaxValue() / 1000.0), ms(m.getNonCorretto(), 99), m.getFallite());
+        }
+        out.printf(formato, "TOTALE", richieste, String.format("%.1f", richieste / secondi),
+                ms(totale, 50), ms(totale, 99), ms(totale, 99.9),
+                String.format("%.2f", totale.getMaxValue() / 1000.0), "", fallite);
+    }
+
+    private static String ms(Histogram h, double percentile) {
+        return String.format("%.2f", h.getValueAtPercentile(percentile) / 1000.0);
+    }
+}
@@ -0,0 +1,86 @@
+package it.turistafacoltoso.loadtest;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+final class MisureRotta {
+
+    private final Histogram corretto = new ConcurrentHistogram(3);
+    private final Histogram nonCorretto = new ConcurrentHistogram(3);
+    private final LongAdder[] stati = new LongAdder[6];
+    private final LongAdder erroriRete = new LongAdder();
+
+    MisureRotta() {
+        for (int i = 0; i < stati.length; i++) {
+            stati[i] = new LongAdder();
+        }
+    }
+
+    void registra(long previstoNs, long inizioNs, long fineNs, int stato) {
+        corretto.recordValue(TimeUnit.NANOSECONDS.toMicros(fineNs - previstoNs));
+        nonCorretto.recordValue(TimeUnit.NANOSECONDS.toMicros(fineNs - inizioNs));
+        stati[Math.min(stato / 100, stati.length - 1)].increment();
+    }
+
+    void errore(long previstoNs, long fineNs) {
+        corretto.recordValue(TimeUnit.NANOSECONDS.toMicros(fineNs - previstoNs));
+        erroriRete.increment();
+    }
+
+    long getRichieste() {
+        return corretto.getTotalCount();
+    }
+
+    long getFallite() {
+        return stati[4].sum() + stati[5].sum() + erroriRete.sum();
+    }
+
+    Histogram getCorretto() {
+        return corretto;
+    }
+
+    Histogram getNonCorretto() {
+        return nonCorretto;
+    }
+
+    Map<String, Object> riepilogo(double secondi) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("richieste", getRichieste());
+        m.put("throughput", getRichieste() / secondi);
+        Map<String, Object> perStato = new LinkedHashMap<>();
+        for (int i = 1; i < stati.length; i++) {
+            perStato.put(i + "xx", stati[i].sum());
+        }
+        perStato.put("erroriRete", erroriRete.sum());
+        m.put("stati", perStato);
+        m.put("latenzaMs", percentili(corretto));
+        m.put("latenzaNonCorrettaMs", percentili(nonCorretto));
+        m.put("istogramma", codifica(corretto));
+        return m;
+    }
+
+    static Map<String, Object> percentili(Histogram h) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("media", h.getMean() / 1000.0);
+        m.put("p50", h.getValueAtPercentile(50) / 1000.0);
+        m.put("p90", h.getValueAtPercentile(90) / 1000.0);
+        m.put("p99", h.getValueAtPercentile(99) / 1000.0);
+        m.put("p999", h.getValueAtPercentile(99.9) / 1000.0);
+        m.put("max", h.getMaxValue() / 1000.0);
+        return m;
+    }
+
+    private static String codifica(Histogram h) {
+        ByteBuffer buffer = ByteBuffer.allocate(h.getNeededByteBufferCapacity());
+        int lunghezza = h.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), lunghezza));
+    }
+}
@@ -0,0 +1,8 @@
+package it.turistafacoltoso.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+
+record Richiesta(String rotta, HttpRequest request, Consumer<HttpResponse<byte[]>> esito) {
+}
@@ -0,0 +1,224 @@
+package it.turistafacoltoso.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.turistafacoltoso.benchmarks.DatiSintetici;
+
+final class Scenario {
+
+    static final String LISTE = "liste";
+    static final String DETTAGLI = "dettagli";
+    static final String REPORT = "report";
+    static final String PRENOTAZIONI = "prenotazioni";
+    static final String FEEDBACK = "feedback";
+
+    private static final int LIMITE_PAGINA = 50;
+    private static final int GIORNI_PER_SLOT = 7;
+
+    private final String baseUrl;
+    private final Duration timeout;
+    private final SplittableRandom random;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LocalDate oggi = LocalDate.now();
+
+    private final int utenti = DatiSintetici.getUtenti();
+    private final int host = DatiSintetici.getHost();
+    private final int abitazioni = DatiSintetici.getAbitazioni();
+    private final int prenotazioni = DatiSintetici.getPrenotazioni();
+
+    private final Map<String, AtomicReference<String>> cursori = new ConcurrentHashMap<>();
+    private final Map<String, String> etag = new ConcurrentHashMap<>();
+    private final AtomicLong nuovePrenotazioni = new AtomicLong();
+    private final AtomicLong nuoviFeedback = new AtomicLong();
+
+    private final String[] categorie;
+    private final int[] pesiCumulati;
+    private final int pesoTotale;
+    private final Map<String, List<Function<SplittableRandom, Richiesta>>> operazioni = new LinkedHashMap<>();
+
+    Scenario(String baseUrl, Map<String, Integer> mix, Duration timeout, long seed) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.random = new SplittableRandom(seed);
+
+        operazioni.put(LISTE, List.of(
+                r -> pagina("/api/abitazioni"),
+                r -> pagina("/api/prenotazioni"),
+                r -> pagina("/api/utenti"),
+                r -> pagina("/api/host"),
+                r -> pagina("/api/feedback")));
+        operazioni.put(DETTAGLI, List.of(
+                r -> get("GET /api/abitazioni/{id}", "/api/abitazioni/" + inclinato(r, abitazioni)),
+                r -> get("GET /api/prenotazioni/{id}", "/api/prenotazioni/" + inclinato(r, prenotazioni)),
+                r -> get("GET /api/utenti/{id}", "/api/utenti/" + inclinato(r, utenti)),
+                r -> get("GET /api/host/{id}", "/api/host/" + inclinato(r, host)),
+                r -> get("GET /api/host/codice/{codiceHost}", "/api/host/codice/" + codiceHost(inclinato(r, host))),
+                r -> get("GET /api/abitazioni/host/{codiceHost}", "/api/abitazioni/host/" + codiceHost(inclinato(r, host))),
+                r -> get("GET /api/feedback/prenotazione/{prenotazioneId}",
+                        "/api/feedback/prenotazione/" + 10 * inclinato(r, Math.max(prenotazioni / 10, 1))),
+                r -> get("GET /api/prenotazioni/ultima/{utenteId}", "/api/prenotazioni/ultima/" + inclinato(r, utenti)),
+                r -> {
+                    LocalDate dal = oggi.plusDays(1 + r.nextInt(60));
+                    return get("GET /api/abitazioni/disponibili", "/api/abitazioni/disponibili?dal=" + dal
+                            + "&al=" + dal.plusDays(1 + r.nextInt(7)) + "&postiLetto=" + (1 + r.nextInt(8)));
+                }));
+        operazioni.put(REPORT, List.of(
+                r -> report("GET /api/abitazioni/report/piu-gettonata", "/api/abitazioni/report/piu-gettonata"),
+                r -> report("GET /api/abitazioni/report/occupazione",
+                        "/api/abitazioni/report/occupazione?from=" + oggi.minusDays(90) + "&to=" + oggi),
+                r -> report("GET /api/abitazioni/report/media-posti-letto", "/api/abitazioni/report/media-posti-letto"),
+                r -> report("GET /api/host/report/top-prenotazioni", "/api/host/report/top-prenotazioni"),
+                r -> report("GET /api/host/report/super-host", "/api/host/report/super-host"),
+                r -> report("GET /api/utenti/report/top-giorni", "/api/utenti/report/top-giorni"),
+                r -> report("GET /api/report/top", "/api/report/top?entity=abitazione&window=30&k=10"),
+                r -> report("GET /api/dashboard", "/api/dashboard")));
+        operazioni.put(PRENOTAZIONI, List.of(this::nuovaPrenotazione));
+        operazioni.put(FEEDBACK, List.of(this::nuovoFeedback));
+
+        List<String> nomi = new ArrayList<>();
+        List<Integer> cumulati = new ArrayList<>();
+        int totale = 0;
+        for (Map.Entry<String, Integer> voce : mix.entrySet()) {
+            if (!operazioni.containsKey(voce.getKey())) {
+                throw new IllegalArgumentException("Categoria di traffico sconosciuta: " + voce.getKey()
+                        + " (ammesse: " + operazioni.keySet() + ")");
+            }
+            if (voce.getValue() > 0) {
+                totale += voce.getValue();
+                nomi.add(voce.getKey());
+                cumulati.add(totale);
+            }
+        }
+        if (totale == 0) {
+            throw new IllegalArgumentException("Il mix di traffico non contiene categorie con peso positivo");
+        }
+        this.categorie = nomi.toArray(String[]::new);
+        this.pesiCumulati = cumulati.stream().mapToInt(Integer::intValue).toArray();
+        this.pesoTotale = totale;
+    }
+
+    Richiesta prossima() {
+        int estratto = random.nextInt(pesoTotale);
+        int i = 0;
+        while (estratto >= pesiCumulati[i]) {
+            i++;
+        }
+        List<Function<SplittableRandom, Richiesta>> candidate = operazioni.get(categorie[i]);
+        return candidate.get(random.nextInt(candidate.size())).apply(random);
+    }
+
+    private Richiesta pagina(String path) {
+        AtomicReference<String> cursore = cursori.computeIfAbsent(path, p -> new AtomicReference<>());
+        String after = cursore.get();
+        String url = path + "?limit=" + LIMITE_PAGINA + (after != null ? "&after=" + after : "");
+        return new Richiesta("GET " + path, builder(url).GET().build(), risposta -> {
+            if (risposta.statusCode() == 200) {
+                cursore.compareAndSet(after, prossimoCursore(risposta.body()));
+            }
+        });
+    }
+
+    private Richiesta get(String rotta, String url) {
+        return new Richiesta(rotta, builder(url).GET().build(), risposta -> {
+        });
+    }
+
+    private Richiesta report(String rotta, String url) {
+        HttpRequest.Builder builder = builder(url).GET();
+        String ultimo = etag.get(url);
+        if (ultimo != null) {
+            builder.header("If-None-Match", ultimo);
+        }
+        return new Richiesta(rotta, builder.build(), risposta ->
+                risposta.headers().firstValue("ETag").ifPresent(valore -> etag.put(url, valore)));
+    }
+
+    private Richiesta nuovaPrenotazione(SplittableRandom r) {
+        long n = nuovePrenotazioni.getAndIncrement();
+        LocalDate inizio = oggi.plusDays(1 + (n / abitazioni) * GIORNI_PER_SLOT);
+        String body = """
+                {"dataInizio":"%s","dataFine":"%s","utenteId":%d,"abitazioneId":%d}"""
+                .formatted(inizio, inizio.plusDays(1 + r.nextInt(5)), inclinato(r, utenti), 1 + n % abitazioni);
+        return new Richiesta("POST /api/prenotazioni", post("/api/prenotazioni", body), risposta -> {
+        });
+    }
+
+    private Richiesta nuovoFeedback(SplittableRandom r) {
+        // I dati sintetici hanno già un feedback sulle prenotazioni con id multiplo di 10
+        long n = nuoviFeedback.getAndIncrement() % (prenotazioni - prenotazioni / 10);
+        long prenotazioneId = n + 1 + n / 9;
+        String body = """
+                {"titolo":"Recensione %d","testo":"Soggiorno piacevole","punteggio":%d,"prenotazioneId":%d}"""
+                .formatted(prenotazioneId, 1 + r.nextInt(5), prenotazioneId);
+        return new Richiesta("POST /api/feedback", post("/api/feedback", body), risposta -> {
+        });
+    }
+
+    private HttpRequest post(String url, String body) {
+        return builder(url)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String url) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + url)).timeout(timeout);
+    }
+
+    private String prossimoCursore(byte[] body) {
+        try {
+            JsonNode cursore = objectMapper.readTree(body).path("prossimoCursore");
+            return cursore.isTextual() ? cursore.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Le chiavi più basse ricevono la maggior parte del traffico, come gli elementi più popolari in produzione
+    private static int inclinato(SplittableRandom r, int n) {
+        double u = r.nextDouble();
+        return 1 + (int) (n * u * u * u);
+    }
+
+    private static String codiceHost(int id) {
+        return "H" + String.format("%06d", id);
+    }
+
+    static Map<String, Integer> mixPredefinito() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put(LISTE, 40);
+        mix.put(DETTAGLI, 30);
+        mix.put(REPORT, 15);
+        mix.put(PRENOTAZIONI, 10);
+        mix.put(FEEDBACK, 5);
+        return mix;
+    }
+
+    static Map<String, Integer> parseMix(String valore) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String voce : valore.split(",")) {
+            String[] parti = voce.split("=");
+            if (parti.length != 2) {
+                throw new IllegalArgumentException("Voce di mix non valida: " + voce + " (atteso categoria=peso)");
+            }
+            mix.put(parti[0].trim(), Integer.parseInt(parti[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,109 @@
+package it.turistafacoltoso.loadtest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.turistafacoltoso.benchmarks.DatiSintetici;
+
+final class ServerLocale implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerLocale.class);
+
+    private static final String PREFISSO_CONFIG = "load.server.config.";
+
+    private final Process processo;
+    private final String baseUrl;
+    private final Path logFile;
+
+    private ServerLocale(Process processo, String baseUrl, Path logFile) {
+        this.processo = processo;
+        this.baseUrl = baseUrl;
+        this.logFile = logFile;
+    }
+
+    static ServerLocale avvia(int porta, List<String> jvmArgs, Duration attesaMassima) throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("turista-load");
+        Properties config = DatiSintetici.configurazione();
+        config.setProperty("server.port", String.valueOf(porta));
+        for (String nome : System.getProperties().stringPropertyNames()) {
+            if (nome.startsWith(PREFISSO_CONFIG)) {
+                config.setProperty(nome.substring(PREFISSO_CONFIG.length()), System.getProperty(nome));
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(dir.resolve("config.properties"))) {
+            config.store(writer, null);
+        }
+
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(jvmArgs);
+        comando.add("-cp");
+        comando.add(System.getProperty("java.class.path"));
+        comando.add("it.turistafacoltoso.Main");
+
+        Path logFile = dir.resolve("server.log");
+        Process processo = new ProcessBuilder(comando)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        ServerLocale server = new ServerLocale(processo, "http://localhost:" + porta, logFile);
+        log.info("Avvio server sulla porta {} (log: {})", porta, logFile);
+        try {
+            server.attendiPronto(attesaMassima);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    private void attendiPronto(Duration attesaMassima) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest ping = HttpRequest.newBuilder(URI.create(baseUrl + "/api/metrics/server"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long scadenza = System.nanoTime() + attesaMassima.toNanos();
+        while (System.nanoTime() < scadenza) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("Il server è terminato durante l'avvio, vedi " + logFile);
+            }
+            try {
+                if (client.send(ping, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    log.info("Server pronto su {}", baseUrl);
+                    return;
+                }
+            } catch (IOException e) {
+                // non ancora in ascolto
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Server non pronto dopo " + attesaMassima.toSeconds() + " s, vedi " + logFile);
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        processo.destroy();
+        if (!processo.waitFor(15, TimeUnit.SECONDS)) {
+            processo.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package it.turistafacoltoso.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.turistafacoltoso.benchmarks.DatiSintetici;
+import it.turistafacoltoso.util.DatabaseConnection;
+
+// Molti client prenotano in parallelo poche abitazioni sulle stesse notti. Alla fine il registro delle risposte
+// del client deve coincidere con le righe nel database: nessuna notte persa, duplicata o sovrapposta.
+public final class StressPrenotazioni {
+
+    private static final Logger log = LoggerFactory.getLogger(StressPrenotazioni.class);
+
+    private static final int GIORNI = 30;
+
+    private StressPrenotazioni() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url");
+        int porta = Integer.getInteger("load.porta", 7070);
+        List<String> jvmArgs = Arrays.stream(System.getProperty("load.server.jvmArgs", "-Xmx1g").split("\\s+"))
+                .filter(s -> !s.isBlank())
+                .toList();
+        int client = Integer.getInteger("load.client", 64);
+        int operazioni = Integer.getInteger("load.operazioni", 50);
+        int numeroAbitazioni = Integer.getInteger("load.abitazioni", 4);
+        int giorniAvanti = Integer.getInteger("load.giorniAvanti", 14);
+        long seed = Long.getLong("load.seed", 42);
+
+        ServerLocale server = null;
+        if (url == null) {
+            DatiSintetici.prepara();
+            DatabaseConnection.shutdown();
+            server = ServerLocale.avvia(porta, jvmArgs, Duration.ofMinutes(2));
+            url = server.getBaseUrl();
+        }
+
+        List<String> errori;
+        try (Connection conn = connessione()) {
+            LocalDate dal = LocalDate.now().plusDays(giorniAvanti);
+            LocalDate al = dal.plusDays(GIORNI);
+            int[] abitazioni = abitazioniLibere(conn, dal, al, numeroAbitazioni);
+            log.info("Stress prenotazioni: {} client x {} operazioni su abitazioni {} dal {} al {}",
+                    client, operazioni, Arrays.toString(abitazioni), dal, al);
+
+            Esecuzione esecuzione = new Esecuzione(url, abitazioni, dal, seed);
+            esecuzione.avvia(client, operazioni);
+            errori = esecuzione.verifica(conn, al);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+
+        if (!errori.isEmpty()) {
+            errori.forEach(e -> log.error("Verifica fallita: {}", e));
+            System.exit(1);
+        }
+        log.info("Verifica superata: registro del client e database coincidono, nessuna sovrapposizione");
+    }
+
+    private static Connection connessione() throws SQLException {
+        Properties config = DatiSintetici.configurazione();
+        return DriverManager.getConnection(config.getProperty("db.url"), config.getProperty("db.user"),
+                config.getProperty("db.pwd"));
+    }
+
+    private static int[] abitazioniLibere(Connection conn, LocalDate dal, LocalDate al, int numero) throws SQLException {
+        String sql = """
+            SELECT a.id FROM abitazione a
+            WHERE a.data_inizio <= ? AND a.data_fine >= ?
+              AND NOT EXISTS (SELECT 1 FROM prenotazione p
+                              WHERE p.abitazione_id = a.id AND p.data_fine > ? AND p.data_inizio < ?)
+            ORDER BY a.id
+            LIMIT ?
+            """;
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setObject(1, dal);
+            ps.setObject(2, al);
+            ps.setObject(3, dal);
+            ps.setObject(4, al);
+            ps.setInt(5, numero);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt("id"));
+                }
+            }
+        }
+        if (ids.size() < numero) {
+            throw new IllegalStateException("Solo " + ids.size() + " abitazioni libere dal " + dal + " al " + al);
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private record Voce(int abitazioneId, LocalDate dataInizio, LocalDate dataFine) {
+
+        private boolean sovrapposta(Voce altra) {
+            return abitazioneId == altra.abitazioneId
+                    && dataInizio.isBefore(altra.dataFine) && altra.dataInizio.isBefore(dataFine);
+        }
+    }
+
+    private static final class Esecuzione {
+
+        private final String baseUrl;
+        private final int[] abitazioni;
+        private final LocalDate dal;
+        private final long seed;
+        private final HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final Map<Integer, Voce> registro = new ConcurrentHashMap<>();
+        private final Map<String, AtomicLong> esiti = new ConcurrentHashMap<>();
+        private final AtomicLong create = new AtomicLong();
+
+        private Esecuzione(String baseUrl, int[] abitazioni, LocalDate dal, long seed) {
+            this.baseUrl = baseUrl;
+            this.abitazioni = abitazioni;
+            this.dal = dal;
+            this.seed = seed;
+        }
+
+        private void avvia(int client, int operazioni) throws Exception {
+            SplittableRandom radice = new SplittableRandom(seed);
+            List<Future<?>> futuri = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < client; c++) {
+                    SplittableRandom random = radice.split();
+                    futuri.add(executor.submit(() -> {
+                        cliente(random, operazioni);
+                        return null;
+                    }));
+                }
+                for (Future<?> futuro : futuri) {
+                    futuro.get();
+                }
+            }
+            log.info("Esiti: {}", new TreeMap<>(esiti));
+        }
+
+        // Ogni client aggiorna solo le prenotazioni che ha creato, una alla volta: così l'ultima risposta 200
+        // ricevuta per un id è anche l'ultima scrittura applicata dal server.
+        private void cliente(SplittableRandom random, int operazioni) throws IOException, InterruptedException {
+            List<Integer> mie = new ArrayList<>();
+            for (int i = 0; i < operazioni; i++) {
+                Voce voce = casuale(random);
+                if (mie.isEmpty() || random.nextInt(5) > 0) {
+                    HttpResponse<String> risposta = invia("POST", "/api/prenotazioni", voce, random);
+                    esito("POST", risposta.statusCode());
+                    if (risposta.statusCode() == 201) {
+                        int id = objectMapper.readTree(risposta.body()).path("id").asInt();
+                        create.incrementAndGet();
+                        mie.add(id);
+                        registro.put(id, voce);
+                    }
+                } else {
+                    int id = mie.get(random.nextInt(mie.size()));
+                    HttpResponse<String> risposta = invia("PUT", "/api/prenotazioni/" + id, voce, random);
+                    esito("PUT", risposta.statusCode());
+                    if (risposta.statusCode() == 200) {
+                        registro.put(id, voce);
+                    }
+                }
+            }
+        }
+
+        private Voce casuale(SplittableRandom random) {
+            LocalDate inizio = dal.plusDays(random.nextInt(GIORNI - 1));
+            LocalDate fine = inizio.plusDays(1 + random.nextInt(4));
+            if (fine.isAfter(dal.plusDays(GIORNI))) {
+                fine = dal.plusDays(GIORNI);
+            }
+            return new Voce(abitazioni[random.nextInt(abitazioni.length)], inizio, fine);
+        }
+
+        private HttpResponse<String> invia(String metodo, String path, Voce voce, SplittableRandom random)
+                throws IOException, InterruptedException {
+            String body = """
+                    {"dataInizio":"%s","dataFine":"%s","utenteId":%d,"abitazioneId":%d}"""
+                    .formatted(voce.dataInizio(), voce.dataFine(), 1 + random.nextInt(DatiSintetici.getUtenti()),
+                            voce.abitazioneId());
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        private void esito(String metodo, int stato) {
+            esiti.computeIfAbsent(metodo + " " + stato, k -> new AtomicLong()).incrementAndGet();
+        }
+
+        private List<String> verifica(Connection conn, LocalDate al) throws SQLException {
+            List<String> errori = new ArrayList<>();
+            esiti.forEach((chiave, numero) -> {
+                if (!chiave.endsWith(" 201") && !chiave.endsWith(" 200") && !chiave.endsWith(" 409")) {
+                    errori.add(numero + " risposte " + chiave + " (ammesse solo 201/200 e 409 per i conflitti)");
+                }
+            });
+
+            Map<Integer, Voce> righe = new TreeMap<>();
+            String sql = """
+                SELECT id, abitazione_id, data_inizio, data_fine FROM prenotazione
+                WHERE abitazione_id = ANY(?) AND data_fine > ? AND data_inizio < ?
+                """;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setArray(1, conn.createArrayOf("integer", Arrays.stream(abitazioni).boxed().toArray()));
+                ps.setObject(2, dal);
+                ps.setObject(3, al);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        righe.put(rs.getInt("id"), new Voce(rs.getInt("abitazione_id"),
+                                rs.getObject("data_inizio", LocalDate.class), rs.getObject("data_fine", LocalDate.class)));
+                    }
+                }
+            }
+
+            if (create.get() != righe.size()) {
+                errori.add("risposte 201: " + create.get() + ", righe inserite: " + righe.size());
+            }
+            if (!new TreeMap<>(registro).equals(righe)) {
+                errori.add("il registro del client non coincide con il database: registro " + registro.size()
+                        + " prenotazioni, database " + righe.size());
+            }
+            List<Voce> voci = new ArrayList<>(righe.values());
+            for (int i = 0; i < voci.size(); i++) {
+                for (int j = i + 1; j < voci.size(); j++) {
+                    if (voci.get(i).sovrapposta(voci.get(j))) {
+                        errori.add("prenotazioni sovrapposte: " + voci.get(i) + " e " + voci.get(j));
+                    }
+                }
+            }
+            log.info("Registro: {} create, {} righe nel database", create.get(), righe.size());
+            return errori;
+        }
+    }
+}